@@ -0,0 +1,69 @@
+package com.floye.safarizone.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture, validation et compilation (table + index spatial) de la configuration des zones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConfigLoadBenchmark {
+    @Param({"10", "100", "500"})
+    public int zones;
+
+    private Path configFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonArray zoneArray = new JsonArray();
+        for (int i = 0; i < zones; i++) {
+            int originX = (i % 32) * 256;
+            int originZ = (i / 32) * 256;
+
+            JsonObject spawn = new JsonObject();
+            spawn.addProperty("x", originX + 64);
+            spawn.addProperty("y", 70);
+            spawn.addProperty("z", originZ + 64);
+
+            JsonObject bounds = new JsonObject();
+            bounds.addProperty("minX", originX);
+            bounds.addProperty("maxX", originX + 127);
+            bounds.addProperty("minY", 0);
+            bounds.addProperty("maxY", 255);
+            bounds.addProperty("minZ", originZ);
+            bounds.addProperty("maxZ", originZ + 127);
+
+            JsonObject zone = new JsonObject();
+            zone.addProperty("id", i + 1);
+            zone.add("spawnPosition", spawn);
+            zone.addProperty("durationMinutes", 30);
+            zone.addProperty("cost", 100.0);
+            zone.add("bounds", bounds);
+            zone.addProperty("dimensionId", "safari:zone");
+            zoneArray.add(zone);
+        }
+
+        JsonObject config = new JsonObject();
+        config.add("zones", zoneArray);
+        configFile = Files.createTempFile("safarizone-bench", ".json");
+        Files.writeString(configFile, config.toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public ConfigLoader.Config parseConfig() throws IOException {
+        return ConfigLoader.parseConfig(configFile.toString());
+    }
+}
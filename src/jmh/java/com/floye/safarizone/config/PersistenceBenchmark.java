@@ -0,0 +1,56 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.Position;
+import com.floye.safarizone.session.SessionStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation en flux du snapshot des sessions ({@code player_states.json}), écriture et relecture.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    private SessionStore.Snapshot states;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        long now = System.currentTimeMillis();
+        SessionStore store = new SessionStore();
+        for (int i = 0; i < sessions; i++) {
+            Position origin = new Position(random.nextInt(20000) - 10000, 64 + random.nextInt(64), random.nextInt(20000) - 10000);
+            String dimension = random.nextBoolean() ? "minecraft:overworld" : "minecraft:the_nether";
+            PlayerSafariState state = new PlayerSafariState(origin, dimension, 1 + random.nextInt(50), 0, now + random.nextInt(3_600_000),
+                    null, random.nextBoolean(), false);
+            store.put(new UUID(random.nextLong(), random.nextLong()), state);
+        }
+        states = store.snapshot();
+        encoded = JsonSessionStorage.encodeSnapshot(states, sessions);
+    }
+
+    @Benchmark
+    public byte[] encodeSnapshot() {
+        return JsonSessionStorage.encodeSnapshot(states, sessions);
+    }
+
+    @Benchmark
+    public SessionStore decodeSnapshot() throws IOException {
+        SessionStore decoded = new SessionStore();
+        JsonSessionStorage.decodeSnapshot(new InputStreamReader(new ByteArrayInputStream(encoded), StandardCharsets.UTF_8), decoded);
+        return decoded;
+    }
+}
@@ -0,0 +1,48 @@
+package com.floye.safarizone.session;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traitement des échéances : planification puis annulation des timers de toutes les sessions, soit le coût
+ * d'un redémarrage (toutes les sessions replanifiées) suivi de leur fin. Remplace l'ancienne boucle de
+ * vérification qui parcourait toutes les sessions chaque seconde.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SessionTimersBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int sessions;
+
+    private SessionTimers timers;
+    private UUID[] playerIds;
+    private PlayerSafariState[] states;
+
+    @Setup
+    public void setUp() {
+        timers = new SessionTimers(new SystemSessionClock(), (playerId, minutes) -> { }, playerId -> { });
+        // Échéances lointaines : aucun timer ne se déclenche pendant la mesure
+        long expiry = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(2);
+        playerIds = new UUID[sessions];
+        states = new PlayerSafariState[sessions];
+        for (int i = 0; i < sessions; i++) {
+            playerIds[i] = new UUID(i, 42);
+            states[i] = new PlayerSafariState(Position.ORIGIN, "minecraft:overworld", 1, 0, expiry + i);
+        }
+    }
+
+    @Benchmark
+    public int scheduleAndCancelAll() {
+        for (int i = 0; i < sessions; i++) {
+            timers.schedule(playerIds[i], states[i]);
+        }
+        int scheduled = timers.scheduledCount();
+        for (int i = 0; i < sessions; i++) {
+            timers.cancel(playerIds[i]);
+        }
+        return scheduled;
+    }
+}
@@ -0,0 +1,77 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.util.SafariBoundary.BoundaryAction;
+import com.floye.safarizone.util.SafariCountdown.CountdownDisplay;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de la zone contenant une position : index spatial comparé au parcours linéaire de toutes les zones
+ * (ancien {@code isInSafariZone} appelé pour chaque zone).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ZoneLookupBenchmark {
+    private static final int PROBES = 1024;
+    private static final String DIMENSION = "safari:zone";
+
+    @Param({"10", "100", "500"})
+    public int zones;
+
+    private ZoneTable table;
+    private Identifier dimension;
+    private int[] probeX, probeY, probeZ;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        List<SafariZoneData> zoneList = new ArrayList<>(zones);
+        for (int i = 0; i < zones; i++) {
+            int originX = (i % 32) * 256;
+            int originZ = (i / 32) * 256;
+            SafariZoneData.Bounds bounds = new SafariZoneData.Bounds(originX, originX + 127, 0, 255, originZ, originZ + 127);
+            zoneList.add(new SafariZoneData(i + 1, new BlockPos(originX + 64, 70, originZ + 64), 30, 100.0, bounds,
+                    DIMENSION, BoundaryAction.PUSH_BACK, 0, 0, false, CountdownDisplay.NONE));
+        }
+        table = ZoneTable.compile(zoneList);
+        dimension = Identifier.of(DIMENSION);
+
+        // Positions tirées sur toute l'étendue : environ un quart tombe dans une zone
+        Random random = new Random(42);
+        int extentX = Math.min(zones, 32) * 256;
+        int extentZ = ((zones + 31) / 32) * 256;
+        probeX = new int[PROBES];
+        probeY = new int[PROBES];
+        probeZ = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            probeX[i] = random.nextInt(extentX);
+            probeY[i] = random.nextInt(256);
+            probeZ[i] = random.nextInt(extentZ);
+        }
+    }
+
+    @Benchmark
+    public int indexedLookup() {
+        int i = probe++ & (PROBES - 1);
+        return table.index().firstZoneAt(dimension, probeX[i], probeY[i], probeZ[i]);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int i = probe++ & (PROBES - 1);
+        for (SafariZoneData zone : table.zones()) {
+            if (DIMENSION.equals(zone.dimensionId) && zone.bounds.contains(probeX[i], probeY[i], probeZ[i])) {
+                return zone.id;
+            }
+        }
+        return -1;
+    }
+}
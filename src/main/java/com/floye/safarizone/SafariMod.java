@@ -2,10 +2,26 @@ package com.floye.safarizone;
 
 import com.floye.safarizone.commands.SafariZoneCommand;
 import com.floye.safarizone.config.ConfigLoader;
+import com.floye.safarizone.config.ConfigReloader;
+import com.floye.safarizone.config.PaymentLedger;
+import com.floye.safarizone.config.PlayerStateManager;
+import com.floye.safarizone.util.ChunkPrefetcher;
+import com.floye.safarizone.util.EconomyHandler;
+import com.floye.safarizone.util.SafariBoundary;
+import com.floye.safarizone.util.SafariCountdown;
+import com.floye.safarizone.util.SafariEventLog;
+import com.floye.safarizone.util.SafariJfr;
+import com.floye.safarizone.util.SafariMetrics;
+import com.floye.safarizone.util.SafariRuntime;
 import com.floye.safarizone.util.SafariZoneManager;
+import com.floye.safarizone.util.SpawnBudget;
+import com.floye.safarizone.util.ZoneAdmission;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,28 +32,66 @@ public class SafariMod implements ModInitializer {
 
 	@Override
 	public void onInitialize() {
-		SafariZoneManager.setZones(ConfigLoader.loadConfig("config/SafariZone/safarizone_config.json"));
+		SafariZoneManager.setZones(ConfigLoader.publish(ConfigLoader.loadConfig(ConfigLoader.CONFIG_FILE_PATH)));
+		SafariJfr.exportSettings();
 
 		ServerLifecycleEvents.SERVER_STARTING.register(server -> {
 			SafariZoneManager.setServerInstance(server);
 			LOGGER.info("Instance serveur initialisée");
 		});
 
+		// Aucun exécuteur ni session avant que le serveur existe : tout démarre ici et s'arrête avec lui
 		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
-			int cleaned = SafariZoneManager.cleanInvalidStates();
-			LOGGER.info("{} états joueurs invalides nettoyés", cleaned);
+			SafariRuntime.start();
+			SafariZoneManager.init();
+			ChunkPrefetcher.holdZoneSpawns(server, SafariZoneManager.getZones());
+			ConfigReloader.startWatcher(server);
+			SafariMetrics.startExporter();
+			SafariEventLog.start();
 		});
 
-		SafariZoneManager.init();
+		// SERVER_STOPPING précède SERVER_STOPPED : l'observateur est terminé avant l'arrêt du runtime
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+			ConfigReloader.stopWatcher();
+			SafariMetrics.stopExporter();
+		});
+
+		ServerWorldEvents.LOAD.register((server, world) -> SafariZoneManager.getZones().onWorldLoad(world));
+		ServerWorldEvents.UNLOAD.register((server, world) -> SafariZoneManager.getZones().onWorldUnload(world));
+		ServerEntityEvents.ENTITY_LOAD.register(SpawnBudget::onEntityLoad);
+		ServerEntityEvents.ENTITY_UNLOAD.register(SpawnBudget::onEntityUnload);
+
+		// Les déconnexions de l'arrêt sont passées : fin des tâches en cours, dernière écriture synchrone des sessions,
+		// puis abandon de tout l'état de la partie (serveur intégré : un autre monde peut démarrer dans la même JVM)
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			SafariRuntime.stop();
+			PlayerStateManager.flushNow();
+			PaymentLedger.close();
+			SafariEventLog.stop();
+			SafariZoneManager.reset();
+			ZoneAdmission.reset();
+			SafariBoundary.reset();
+			SafariCountdown.reset();
+			SpawnBudget.clear();
+		});
+
+		ServerTickEvents.END_SERVER_TICK.register(ZoneAdmission::tick);
+		ServerTickEvents.END_SERVER_TICK.register(SafariZoneManager::tick);
+		ServerTickEvents.END_SERVER_TICK.register(SafariCountdown::tick);
+		ServerTickEvents.END_SERVER_TICK.register(SpawnBudget::tick);
 
 		CommandRegistrationCallback.EVENT.register((dispatcher, registry, env) ->
 				SafariZoneCommand.register(dispatcher));
 
-		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) ->
-				SafariZoneManager.updatePlayerStateOnLogout(handler.getPlayer()));
+		ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+			SafariZoneManager.updatePlayerStateOnLogout(handler.getPlayer());
+			EconomyHandler.invalidate(handler.getPlayer().getUuid());
+		});
 
-		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) ->
-				SafariZoneManager.handlePlayerReconnection(handler.getPlayer()));
+		ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+			EconomyHandler.prewarm(handler.getPlayer().getUuid());
+			SafariZoneManager.handlePlayerReconnection(handler.getPlayer());
+		});
 
 		LOGGER.info("SafariZone Mod initialisé");
 	}
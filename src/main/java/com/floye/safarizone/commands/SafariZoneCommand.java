@@ -1,11 +1,17 @@
 package com.floye.safarizone.commands;
 
+import com.floye.safarizone.config.ConfigReloader;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.util.SafariMetrics;
 import com.floye.safarizone.util.SafariZoneManager;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.command.argument.EntityArgumentType;
 import net.minecraft.server.command.CommandManager;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 
 public class SafariZoneCommand {
@@ -21,6 +27,34 @@ public class SafariZoneCommand {
                             return 1; // Succès
                         })
                 )
+                .then(CommandManager.literal("reload")
+                        .executes(context -> {
+                            ServerCommandSource source = context.getSource();
+                            ConfigReloader.reload(source.getServer())
+                                    .thenAccept(summary -> source.sendFeedback(() -> Text.literal(summary), true));
+                            return 1;
+                        })
+                )
+                .then(CommandManager.literal("stats")
+                        .executes(context -> {
+                            context.getSource().sendFeedback(() -> Text.literal(SafariMetrics.summary()), false);
+                            return 1;
+                        })
+                )
+                .then(CommandManager.literal("where")
+                        .then(CommandManager.argument("player", EntityArgumentType.player())
+                                .executes(context -> {
+                                    ServerPlayerEntity target = EntityArgumentType.getPlayer(context, "player");
+                                    IntList zones = SafariZoneManager.findZones(target);
+                                    PlayerSafariState state = SafariZoneManager.getPlayerStates().get(target.getUuid());
+
+                                    String location = zones.isEmpty() ? "hors de toute zone" : "dans la zone " + zones;
+                                    String session = state != null ? " (session active: zone " + state.zoneId + ", instance " + state.instance + ")" : " (aucune session)";
+                                    context.getSource().sendFeedback(() -> Text.literal(target.getName().getString() + " est " + location + session), false);
+                                    return zones.size();
+                                })
+                        )
+                )
         );
     }
 }
\ No newline at end of file
@@ -1,52 +1,278 @@
 package com.floye.safarizone.config;
 
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.util.DimensionKeys;
+import com.floye.safarizone.util.SafariJfr;
+import com.floye.safarizone.util.SafariBoundary.BoundaryAction;
+import com.floye.safarizone.util.SafariCountdown.CountdownDisplay;
 import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
 import com.floye.safarizone.util.SafariZoneManager.SafariZoneData.Bounds;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData.InstanceLayout;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData.SpawnLimit;
+import com.floye.safarizone.util.ZoneIndex;
+import com.floye.safarizone.util.ZoneTable;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import net.minecraft.util.math.BlockPos;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigLoader {
 
-    private static final String CONFIG_FILE_PATH = "config/SafariZone/safarizone_config.json";
+    public static final String CONFIG_FILE_PATH = "config/SafariZone/safarizone_config.json";
     private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
 
-    public static Map<Integer, SafariZoneData> loadConfig(String configFilePath) {
-        ConfigData configData = null;
-        File configFile = new File(CONFIG_FILE_PATH);
+    private static final int DEFAULT_TICK_BUDGET_MICROS = 2000;
+
+    // Options globales de la configuration publiée, remplacées d'un bloc avec la table des zones
+    private static volatile Settings settings = new Settings(false, StorageBackend.JSON,
+            TimeUnit.MICROSECONDS.toNanos(DEFAULT_TICK_BUDGET_MICROS));
+
+    /* Stockage des sessions, lu au démarrage du serveur */
+    public enum StorageBackend {
+        JSON, H2, SHARDED
+    }
+
+    /* Options globales : rechargement automatique, stockage des sessions, temps accordé par tick aux sorties de zone */
+    public record Settings(boolean autoReload, StorageBackend storageBackend, long tickBudgetNanos) {
+    }
+
+    /* Configuration lue et validée, pas encore publiée (voir publish) */
+    public record Config(ZoneTable zones, Settings settings) {
+    }
+
+    /**
+     * Charge la configuration au démarrage. Un fichier absent est créé avec les zones par défaut.
+     * <p>
+     * Un fichier invalide interrompt le démarrage : les zones par défaut ne remplacent jamais une configuration
+     * existante, sans quoi les sessions des zones configurées seraient nettoyées au chargement (et le stockage des
+     * sessions choisi ignoré).
+     *
+     * @param configFilePath Le chemin du fichier de configuration.
+     * @return La configuration, à publier.
+     * @throws IllegalStateException si le fichier existe mais ne peut pas être lu ou est invalide.
+     */
+    public static Config loadConfig(String configFilePath) {
+        File configFile = new File(configFilePath);
 
         if (!configFile.exists()) {
-            configData = getDefaultConfig();
+            ConfigData configData = getDefaultConfig();
             saveConfig(configData, configFile);
-        } else {
-            try (FileReader reader = new FileReader(configFile)) {
-                configData = GSON.fromJson(reader, ConfigData.class);
-            } catch (Exception e) {
-                e.printStackTrace();
-                configData = getDefaultConfig();
+            return new Config(compile(configData), settings(configData));
+        }
+
+        try {
+            return parseConfig(configFilePath);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalStateException("Configuration SafariZone invalide (" + configFilePath + ") : " + e.getMessage()
+                    + ". Corrigez le fichier puis relancez le serveur", e);
+        }
+    }
+
+    /**
+     * Lit et valide strictement la configuration, sans effet de bord sur les zones actives ni sur les options
+     * globales : rien n'est publié avant {@link #publish}.
+     *
+     * @param configFilePath Le chemin du fichier de configuration.
+     * @return La configuration, à publier.
+     * @throws IOException              si le fichier ne peut pas être lu.
+     * @throws IllegalArgumentException si la configuration est invalide.
+     */
+    public static Config parseConfig(String configFilePath) throws IOException {
+        SafariJfr.ConfigLoad event = new SafariJfr.ConfigLoad();
+        event.begin();
+        try {
+            Config config = readConfig(configFilePath);
+            event.zones = config.zones().zones().size();
+            event.valid = true;
+            return config;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = configFilePath;
+                event.bytes = new File(configFilePath).length();
+                event.commit();
             }
         }
+    }
+
+    private static Config readConfig(String configFilePath) throws IOException {
+        ConfigData configData;
+        try (FileReader reader = new FileReader(configFilePath)) {
+            configData = GSON.fromJson(reader, ConfigData.class);
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("JSON invalide: " + e.getMessage(), e);
+        }
 
-        Map<Integer, SafariZoneData> zones = new HashMap<>();
+        if (configData == null || configData.zones == null) {
+            throw new IllegalArgumentException("Aucune zone définie");
+        }
+        if (configData.tickBudgetMicros != null && configData.tickBudgetMicros <= 0) {
+            throw new IllegalArgumentException("tickBudgetMicros doit être positif");
+        }
+        return new Config(compile(configData), settings(configData));
+    }
+
+    private static Settings settings(ConfigData configData) {
+        return new Settings(configData.autoReload, parseStorageBackend(configData.storage),
+                TimeUnit.MICROSECONDS.toNanos(configData.tickBudgetMicros != null
+                        ? configData.tickBudgetMicros : DEFAULT_TICK_BUDGET_MICROS));
+    }
+
+    /**
+     * Publie une configuration valide : ses options globales puis sa table des zones, sur le thread serveur (ou
+     * pendant l'initialisation). Une configuration refusée n'a jamais rien publié.
+     *
+     * @param config La configuration lue par {@link #loadConfig} ou {@link #parseConfig}.
+     * @return La table des zones, à appliquer aux zones actives.
+     */
+    public static ZoneTable publish(Config config) {
+        settings = config.settings();
+        return config.zones();
+    }
+
+    public static boolean isAutoReloadEnabled() {
+        return settings.autoReload();
+    }
+
+    public static StorageBackend getStorageBackend() {
+        return settings.storageBackend();
+    }
+
+    /**
+     * @return Le temps accordé à chaque tick aux sorties de zone en attente, en nanosecondes.
+     */
+    public static long getTickBudgetNanos() {
+        return settings.tickBudgetNanos();
+    }
+
+    private static ZoneTable compile(ConfigData configData) {
+        List<SafariZoneData> zones = new ArrayList<>();
+        Set<Integer> ids = new HashSet<>();
         for (ZoneConfig zone : configData.zones) {
-            zones.put(zone.id, new SafariZoneData(
+            validate(zone);
+            if (!ids.add(zone.id)) {
+                throw new IllegalArgumentException("Identifiant de zone dupliqué: " + zone.id);
+            }
+            zones.add(new SafariZoneData(
+                    zone.id,
                     new BlockPos(zone.spawnPosition.x, zone.spawnPosition.y, zone.spawnPosition.z),
                     zone.durationMinutes,
                     zone.cost,
                     new Bounds(zone.bounds.minX, zone.bounds.maxX, zone.bounds.minY, zone.bounds.maxY, zone.bounds.minZ, zone.bounds.maxZ),
-                    zone.dimensionId
+                    zone.dimensionId,
+                    parseBoundaryAction(zone),
+                    zone.capacity,
+                    zone.maxEntriesPerSecond,
+                    zone.keepSpawnLoaded == null || zone.keepSpawnLoaded,
+                    parseCountdownDisplay(zone),
+                    parseInstances(zone),
+                    parseSpawnLimit(zone)
             ));
         }
-        return zones;
+        return ZoneTable.compile(zones);
+    }
+
+    private static void validate(ZoneConfig zone) {
+        if (zone.id < 1 || zone.id > ZoneTable.MAX_ZONE_ID) {
+            throw new IllegalArgumentException("Identifiant de zone invalide (1 à " + ZoneTable.MAX_ZONE_ID + "): " + zone.id);
+        }
+        if (zone.spawnPosition == null || zone.bounds == null) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : spawnPosition et bounds sont obligatoires");
+        }
+        if (zone.bounds.minX > zone.bounds.maxX || zone.bounds.minY > zone.bounds.maxY || zone.bounds.minZ > zone.bounds.maxZ) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : bornes min supérieures aux bornes max");
+        }
+        if (ZoneIndex.chunkArea(zone.bounds.minX, zone.bounds.minZ, zone.bounds.maxX, zone.bounds.maxZ) > ZoneIndex.MAX_ZONE_CHUNKS) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : limites trop étendues (plus de "
+                    + ZoneIndex.MAX_ZONE_CHUNKS + " chunks)");
+        }
+        if (zone.durationMinutes <= 0 || zone.cost < 0 || zone.capacity < 0 || zone.maxEntriesPerSecond < 0) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : durée, coût, capacité ou débit invalide");
+        }
+        if (DimensionKeys.of(zone.dimensionId) == null) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : identifiant de dimension invalide '" + zone.dimensionId + "'");
+        }
+        if ((zone.spawnBudget != null && zone.spawnBudget < 0) || zone.spawnBudgetPerSession < 0) {
+            throw new IllegalArgumentException("Zone " + zone.id + " : budget d'apparition négatif");
+        }
+        if (zone.instances != null) {
+            for (InstanceConfig instance : zone.instances) {
+                if (instance == null) {
+                    throw new IllegalArgumentException("Zone " + zone.id + " : instance vide");
+                }
+                if (instance.dimensionId != null && DimensionKeys.of(instance.dimensionId) == null) {
+                    throw new IllegalArgumentException("Zone " + zone.id + " : identifiant de dimension d'instance invalide '" + instance.dimensionId + "'");
+                }
+            }
+        }
+    }
+
+    /* Sans spawnBudget ni spawnBudgetPerSession, les apparitions ne sont pas limitées */
+    private static SpawnLimit parseSpawnLimit(ZoneConfig zone) {
+        if (zone.spawnBudget == null && zone.spawnBudgetPerSession == 0) {
+            return SpawnLimit.NONE;
+        }
+        return new SpawnLimit(zone.spawnBudget != null ? zone.spawnBudget : 0, zone.spawnBudgetPerSession);
+    }
+
+    /* Instances supplémentaires ; sans liste, la zone n'a que sa disposition déclarée */
+    private static List<InstanceLayout> parseInstances(ZoneConfig zone) {
+        if (zone.instances == null) {
+            return List.of();
+        }
+        List<InstanceLayout> layouts = new ArrayList<>(zone.instances.size());
+        for (InstanceConfig instance : zone.instances) {
+            layouts.add(new InstanceLayout(instance.offsetX, instance.offsetY, instance.offsetZ, instance.dimensionId));
+        }
+        return layouts;
+    }
+
+    private static BoundaryAction parseBoundaryAction(ZoneConfig zone) {
+        if (zone.boundaryAction == null) {
+            return BoundaryAction.PUSH_BACK;
+        }
+        try {
+            return BoundaryAction.valueOf(zone.boundaryAction.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            SafariMod.LOGGER.warn("Action de limite inconnue '{}' pour la zone {}, PUSH_BACK utilisé", zone.boundaryAction, zone.id);
+            return BoundaryAction.PUSH_BACK;
+        }
+    }
+
+    private static CountdownDisplay parseCountdownDisplay(ZoneConfig zone) {
+        if (zone.countdownDisplay == null) {
+            return CountdownDisplay.ACTION_BAR;
+        }
+        try {
+            return CountdownDisplay.valueOf(zone.countdownDisplay.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            SafariMod.LOGGER.warn("Affichage du compte à rebours inconnu '{}' pour la zone {}, ACTION_BAR utilisé", zone.countdownDisplay, zone.id);
+            return CountdownDisplay.ACTION_BAR;
+        }
+    }
+
+    private static StorageBackend parseStorageBackend(String storage) {
+        if (storage == null) {
+            return StorageBackend.JSON;
+        }
+        try {
+            return StorageBackend.valueOf(storage.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            SafariMod.LOGGER.warn("Stockage des sessions inconnu '{}', JSON utilisé", storage);
+            return StorageBackend.JSON;
+        }
     }
 
     private static void saveConfig(ConfigData configData, File configFile) {
@@ -95,6 +321,12 @@ public class ConfigLoader {
 
     // Structure de la configuration JSON
     private static class ConfigData {
+        // Recharge automatiquement la configuration lorsque le fichier est modifié
+        boolean autoReload;
+        // Stockage des sessions : "json" (par défaut), "h2" ou "sharded" (un fichier par joueur), pris en compte au prochain démarrage
+        String storage;
+        // Temps accordé à chaque tick aux sorties de zone en attente (2000 µs par défaut)
+        Integer tickBudgetMicros;
         List<ZoneConfig> zones;
     }
 
@@ -105,6 +337,21 @@ public class ConfigLoader {
         double cost;
         BoundsConfig bounds;
         String dimensionId;
+        // PUSH_BACK, END_SESSION ou NONE
+        String boundaryAction;
+        // Joueurs simultanés et entrées par seconde, 0 = illimité
+        int capacity;
+        double maxEntriesPerSecond;
+        // Maintient chargés les chunks du point d'apparition (true par défaut)
+        Boolean keepSpawnLoaded;
+        // ACTION_BAR, BOSS_BAR ou NONE
+        String countdownDisplay;
+        // Copies supplémentaires de la zone ; les entrées vont dans l'instance la moins occupée
+        // (capacity et maxEntriesPerSecond restent globaux à la zone)
+        List<InstanceConfig> instances;
+        // Créatures sauvages dans les limites de la zone : spawnBudget + spawnBudgetPerSession par session en cours
+        Integer spawnBudget;
+        int spawnBudgetPerSession;
 
         public ZoneConfig(int id, SpawnPosition spawnPosition, int durationMinutes, double cost, BoundsConfig bounds, String dimensionId) {
             this.id = id;
@@ -113,6 +360,9 @@ public class ConfigLoader {
             this.cost = cost;
             this.bounds = bounds;
             this.dimensionId = dimensionId;
+            this.boundaryAction = BoundaryAction.PUSH_BACK.name();
+            this.keepSpawnLoaded = true;
+            this.countdownDisplay = CountdownDisplay.ACTION_BAR.name();
         }
     }
 
@@ -145,4 +395,13 @@ public class ConfigLoader {
             this.maxZ = maxZ;
         }
     }
-}
\ No newline at end of file
+
+    private static class InstanceConfig {
+        // Décalage par rapport au point d'apparition et aux limites de la zone
+        int offsetX;
+        int offsetY;
+        int offsetZ;
+        // Dimension de la copie, celle de la zone si absente
+        String dimensionId;
+    }
+}
@@ -0,0 +1,118 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.util.SafariRuntime;
+import com.floye.safarizone.util.SafariZoneManager;
+import com.floye.safarizone.util.ZoneTable;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rechargement à chaud de la configuration des zones.
+ * <p>
+ * Le fichier est lu et validé hors du thread serveur ; la nouvelle table et les options globales ne sont
+ * publiées, d'un seul bloc, que si la configuration est valide. Un observateur optionnel du dossier {@code config/SafariZone/} déclenche
+ * le rechargement à chaque modification du fichier ({@code "autoReload": true}).
+ */
+public class ConfigReloader {
+    private static final long WATCH_DEBOUNCE_MILLIS = 1000;
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private static volatile Thread watcherThread;
+
+    /**
+     * Relit la configuration et l'applique aux zones actives.
+     *
+     * @param server Le serveur.
+     * @return Un CompletableFuture contenant le résumé du rechargement, terminé sur le thread serveur.
+     */
+    public static CompletableFuture<String> reload(MinecraftServer server) {
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    try {
+                        return ConfigLoader.parseConfig(ConfigLoader.CONFIG_FILE_PATH);
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Lecture impossible: " + e.getMessage(), e);
+                    }
+                }, SafariRuntime.io())
+                .handleAsync((config, error) -> {
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        SafariMod.LOGGER.error("Rechargement de la configuration refusé", cause);
+                        return "Configuration refusée, zones actuelles conservées : " + cause.getMessage();
+                    }
+                    String summary = SafariZoneManager.reloadZones(ConfigLoader.publish(config));
+                    SafariMod.LOGGER.info("Configuration rechargée : {}", summary);
+                    return summary;
+                }, server);
+    }
+
+    public static void startWatcher(MinecraftServer server) {
+        if (!ConfigLoader.isAutoReloadEnabled() || watcherThread != null) return;
+
+        // Attente bloquante sur le WatchService : un thread virtuel suffit
+        watcherThread = Thread.ofVirtual().name("SafariZone-ConfigWatcher").start(() -> watch(server));
+    }
+
+    /**
+     * Arrête l'observateur et attend sa fin (arrêt du serveur, avant celui du runtime) : aucun rechargement n'est
+     * lancé une fois le runtime arrêté.
+     */
+    public static void stopWatcher() {
+        Thread thread = watcherThread;
+        watcherThread = null;
+        if (thread == null) return;
+
+        thread.interrupt();
+        try {
+            if (!thread.join(Duration.ofMillis(STOP_TIMEOUT_MILLIS))) {
+                SafariMod.LOGGER.warn("Surveillance de la configuration toujours active après {} ms", STOP_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void watch(MinecraftServer server) {
+        Path configFile = Path.of(ConfigLoader.CONFIG_FILE_PATH);
+        Path directory = configFile.getParent();
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            SafariMod.LOGGER.info("Surveillance de {} activée", configFile);
+
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream()
+                        .anyMatch(event -> configFile.getFileName().equals(event.context()));
+                key.reset();
+                if (!changed) continue;
+
+                // Un éditeur écrit souvent le fichier en plusieurs fois : on attend la fin de la rafale
+                Thread.sleep(WATCH_DEBOUNCE_MILLIS);
+                WatchKey burst;
+                while ((burst = watchService.poll(0, TimeUnit.MILLISECONDS)) != null) {
+                    burst.pollEvents();
+                    burst.reset();
+                }
+                try {
+                    reload(server);
+                } catch (RejectedExecutionException e) {
+                    // Runtime arrêté entre la modification et son rechargement : le serveur s'arrête
+                    SafariMod.LOGGER.debug("Rechargement abandonné, runtime SafariZone arrêté");
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Surveillance de la configuration impossible", e);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.Position;
+import com.floye.safarizone.session.SessionStore;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stockage des sessions dans une base H2 embarquée ({@code config/SafariZone/sessions.mv.db}) : une ligne par
+ * session, indexée par joueur, zone et échéance. Chaque lot est écrit en une transaction ; une requête ne lit
+ * que les lignes concernées.
+ * <p>
+ * À la première ouverture, les sessions du stockage JSON sont importées puis ses fichiers renommés
+ * ({@code .migrated}).
+ */
+public class H2SessionStorage implements SessionStorage {
+    private static final String DATABASE_PATH = "config/SafariZone/sessions";
+
+    private static final String CREATE_TABLE = """
+            CREATE TABLE IF NOT EXISTS sessions (
+                player UUID PRIMARY KEY,
+                origin_x INT,
+                origin_y INT,
+                origin_z INT,
+                dimension VARCHAR(255),
+                zone_id INT NOT NULL,
+                expiry_millis BIGINT NOT NULL,
+                logout_millis BIGINT,
+                five_minute_warning BOOLEAN NOT NULL,
+                one_minute_warning BOOLEAN NOT NULL,
+                instance INT NOT NULL DEFAULT 0
+            )""";
+    // Bases créées avant l'ajout des instances de zone
+    private static final String ADD_INSTANCE_COLUMN = "ALTER TABLE sessions ADD COLUMN IF NOT EXISTS instance INT NOT NULL DEFAULT 0";
+    private static final String CREATE_ZONE_INDEX = "CREATE INDEX IF NOT EXISTS sessions_zone ON sessions (zone_id)";
+    private static final String CREATE_EXPIRY_INDEX = "CREATE INDEX IF NOT EXISTS sessions_expiry ON sessions (expiry_millis)";
+    private static final String COLUMNS = "player, origin_x, origin_y, origin_z, dimension, zone_id, expiry_millis, " +
+            "logout_millis, five_minute_warning, one_minute_warning, instance";
+    private static final String UPSERT = "MERGE INTO sessions (" + COLUMNS + ") KEY (player) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM sessions WHERE player = ?";
+
+    // Une seule connexion : les accès (écritures du flush, requêtes d'administration) sont sérialisés
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Connection connection;
+
+    private H2SessionStorage(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Ouvre (ou crée) la base, puis importe les sessions JSON si la base est vide.
+     *
+     * @return Le stockage ouvert.
+     * @throws IOException si la base est inaccessible (fichier verrouillé, corrompu...).
+     */
+    public static H2SessionStorage open() throws IOException {
+        Path database = Path.of(DATABASE_PATH).toAbsolutePath();
+        Files.createDirectories(database.getParent());
+
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:file:" + database);
+        Connection connection;
+        try {
+            connection = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IOException("Base de sessions H2 inaccessible", e);
+        }
+        // La connexion garde le fichier verrouillé : elle est fermée si la préparation de la base échoue
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(CREATE_TABLE);
+                statement.execute(ADD_INSTANCE_COLUMN);
+                statement.execute(CREATE_ZONE_INDEX);
+                statement.execute(CREATE_EXPIRY_INDEX);
+            }
+            H2SessionStorage storage = new H2SessionStorage(connection);
+            storage.migrateFromJson();
+            return storage;
+        } catch (SQLException | IOException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeError) {
+                e.addSuppressed(closeError);
+            }
+            if (e instanceof IOException io) throw io;
+            throw new IOException("Base de sessions H2 inaccessible", e);
+        }
+    }
+
+    /* Import unique : les fichiers JSON renommés ne sont plus relus, la base fait foi */
+    private void migrateFromJson() throws IOException, SQLException {
+        Path snapshot = Path.of(JsonSessionStorage.FILE_NAME);
+        Path journal = Path.of(JsonSessionStorage.JOURNAL_FILE_NAME);
+        if (!Files.exists(snapshot) && !Files.exists(journal)) return;
+
+        try (Statement statement = connection.createStatement();
+             ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM sessions")) {
+            if (count.next() && count.getLong(1) > 0) {
+                SafariMod.LOGGER.warn("Fichiers de sessions JSON présents mais base H2 non vide : import ignoré");
+                return;
+            }
+        }
+
+        SessionStore.Snapshot sessions;
+        try (JsonSessionStorage json = new JsonSessionStorage()) {
+            sessions = json.loadAll().snapshot();
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT)) {
+            for (int i = 0; i < sessions.size(); i++) {
+                upsert.setObject(1, sessions.playerId(i));
+                if (sessions.hasOrigin(i)) {
+                    upsert.setInt(2, sessions.originX(i));
+                    upsert.setInt(3, sessions.originY(i));
+                    upsert.setInt(4, sessions.originZ(i));
+                } else {
+                    upsert.setNull(2, Types.INTEGER);
+                    upsert.setNull(3, Types.INTEGER);
+                    upsert.setNull(4, Types.INTEGER);
+                }
+                upsert.setString(5, sessions.dimensionId(i));
+                upsert.setInt(6, sessions.zoneId(i));
+                upsert.setLong(7, sessions.expiryTimeMillis(i));
+                if (sessions.logoutTimeMillis(i) != SessionStore.NO_LOGOUT) {
+                    upsert.setLong(8, sessions.logoutTimeMillis(i));
+                } else {
+                    upsert.setNull(8, Types.BIGINT);
+                }
+                upsert.setBoolean(9, sessions.fiveMinuteWarningSent(i));
+                upsert.setBoolean(10, sessions.oneMinuteWarningSent(i));
+                upsert.setInt(11, sessions.instance(i));
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        for (Path file : new Path[]{snapshot, journal}) {
+            if (Files.exists(file)) {
+                Files.move(file, file.resolveSibling(file.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        SafariMod.LOGGER.info("{} sessions importées du stockage JSON vers H2", sessions.size());
+    }
+
+    @Override
+    public SessionStore loadAll() throws IOException {
+        SessionStore states = new SessionStore();
+        lock.lock();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT " + COLUMNS + " FROM sessions")) {
+            while (rows.next()) {
+                UUID playerId = rows.getObject(1, UUID.class);
+                int x = rows.getInt(2);
+                boolean hasOrigin = !rows.wasNull();
+                long logout = rows.getLong(8);
+                if (rows.wasNull()) logout = SessionStore.NO_LOGOUT;
+
+                states.put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(),
+                        hasOrigin, hasOrigin ? Position.asLong(x, rows.getInt(3), rows.getInt(4)) : 0,
+                        rows.getString(5), rows.getInt(6), rows.getInt(11), rows.getLong(7), logout,
+                        rows.getBoolean(9), rows.getBoolean(10));
+            }
+            return states;
+        } catch (SQLException e) {
+            throw new IOException("Lecture des sessions H2 impossible", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public PlayerSafariState load(UUID playerId) throws IOException {
+        lock.lock();
+        try (PreparedStatement select = connection.prepareStatement("SELECT " + COLUMNS + " FROM sessions WHERE player = ?")) {
+            select.setObject(1, playerId);
+            try (ResultSet row = select.executeQuery()) {
+                if (!row.next()) return null;
+
+                int x = row.getInt(2);
+                Position origin = row.wasNull() ? null : new Position(x, row.getInt(3), row.getInt(4));
+                long logout = row.getLong(8);
+                boolean paused = !row.wasNull();
+                return new PlayerSafariState(origin, row.getString(5), row.getInt(6), row.getInt(11), row.getLong(7),
+                        paused ? logout : null, row.getBoolean(9), row.getBoolean(10));
+            }
+        } catch (SQLException e) {
+            throw new IOException("Lecture de la session " + playerId + " impossible", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<UUID> findByZone(int zoneId) throws IOException {
+        return queryPlayers("SELECT player FROM sessions WHERE zone_id = ?", zoneId);
+    }
+
+    @Override
+    public List<UUID> findExpiringBefore(long timeMillis) throws IOException {
+        return queryPlayers("SELECT player FROM sessions WHERE expiry_millis < ?", timeMillis);
+    }
+
+    private List<UUID> queryPlayers(String sql, long parameter) throws IOException {
+        lock.lock();
+        try (PreparedStatement select = connection.prepareStatement(sql)) {
+            select.setLong(1, parameter);
+            List<UUID> players = new ArrayList<>();
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    players.add(rows.getObject(1, UUID.class));
+                }
+            }
+            return players;
+        } catch (SQLException e) {
+            throw new IOException("Requête sur les sessions H2 impossible", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* Un lot = une transaction : après un arrêt brutal, la base reflète un lot entier ou aucun */
+    @Override
+    public void write(List<Change> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        lock.lock();
+        try (PreparedStatement upsert = connection.prepareStatement(UPSERT);
+             PreparedStatement delete = connection.prepareStatement(DELETE)) {
+            connection.setAutoCommit(false);
+            for (Change change : changes) {
+                PlayerSafariState state = change.state();
+                if (state == null) {
+                    delete.setObject(1, change.playerId());
+                    delete.addBatch();
+                    continue;
+                }
+
+                upsert.setObject(1, change.playerId());
+                if (state.originalPosition != null) {
+                    upsert.setInt(2, state.originalPosition.x());
+                    upsert.setInt(3, state.originalPosition.y());
+                    upsert.setInt(4, state.originalPosition.z());
+                } else {
+                    upsert.setNull(2, Types.INTEGER);
+                    upsert.setNull(3, Types.INTEGER);
+                    upsert.setNull(4, Types.INTEGER);
+                }
+                upsert.setString(5, state.originalDimensionId);
+                upsert.setInt(6, state.zoneId);
+                upsert.setLong(7, state.expiryTimeMillis);
+                upsert.setObject(8, state.logoutTimeMillis, Types.BIGINT);
+                upsert.setBoolean(9, state.fiveMinuteWarningSent);
+                upsert.setBoolean(10, state.oneMinuteWarningSent);
+                upsert.setInt(11, state.instance);
+                upsert.addBatch();
+            }
+            upsert.executeBatch();
+            delete.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            throw new IOException("Écriture des sessions H2 impossible", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                SafariMod.LOGGER.error("Connexion H2 inutilisable", e);
+            }
+            lock.unlock();
+        }
+    }
+
+    /* Chaque lot est déjà durable : pas de point de sauvegarde à faire */
+    @Override
+    public boolean needsCheckpoint() {
+        return false;
+    }
+
+    @Override
+    public void checkpoint(SessionStore.Snapshot sessions) {
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw new IOException("Fermeture de la base H2 impossible", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
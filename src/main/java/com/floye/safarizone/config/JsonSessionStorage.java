@@ -0,0 +1,413 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.Position;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionStore;
+import com.floye.safarizone.util.SafariMetrics;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stockage JSON des sessions : un snapshot complet ({@code player_states.json}) et un journal
+ * ({@code player_states.log}) auquel chaque lot de modifications ajoute une ligne par joueur.
+ * <p>
+ * Le coût d'un lot ne dépend que des sessions modifiées. Le journal demande un point de sauvegarde
+ * (nouveau snapshot puis troncature) dès qu'il dépasse {@link #COMPACTION_THRESHOLD_BYTES}.
+ * Au chargement, le snapshot est relu puis la fin du journal rejouée ; les requêtes relisent les fichiers.
+ */
+public class JsonSessionStorage implements SessionStorage {
+    static final String FILE_NAME = "config/SafariZone/player_states.json";
+    static final String JOURNAL_FILE_NAME = "config/SafariZone/player_states.log";
+    private static final long COMPACTION_THRESHOLD_BYTES = 512 * 1024;
+    private static final Gson GSON = new Gson();
+
+    // Écrits sous le verrou de PlayerStateManager
+    private FileChannel journal;
+    private long journalBytes;
+    private long lastSequence;
+    // Version de la table des sessions dans le dernier snapshot écrit, -1 avant le premier
+    private long snapshotVersion = -1;
+
+    @Override
+    public SessionStore loadAll() throws IOException {
+        SessionStore states = new SessionStore();
+        Replay replay = read(states);
+        lastSequence = replay.sequence;
+        snapshotVersion = -1;
+        journalBytes = repairJournal(replay);
+        return states;
+    }
+
+    @Override
+    public PlayerSafariState load(UUID playerId) throws IOException {
+        return scan().get(playerId);
+    }
+
+    @Override
+    public List<UUID> findByZone(int zoneId) throws IOException {
+        SessionStore.Snapshot sessions = scan().snapshot();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            if (sessions.zoneId(i) == zoneId) players.add(sessions.playerId(i));
+        }
+        return players;
+    }
+
+    @Override
+    public List<UUID> findExpiringBefore(long timeMillis) throws IOException {
+        SessionStore.Snapshot sessions = scan().snapshot();
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < sessions.size(); i++) {
+            if (sessions.expiryTimeMillis(i) < timeMillis) players.add(sessions.playerId(i));
+        }
+        return players;
+    }
+
+    /* Les fichiers sont la seule source : une requête relit et analyse toutes les sessions */
+    private SessionStore scan() throws IOException {
+        SessionStore states = new SessionStore();
+        read(states);
+        return states;
+    }
+
+    /* Snapshot puis fin du journal ; retourne la dernière séquence lue et la longueur lisible du journal */
+    private static Replay read(SessionStore states) {
+        long snapshotSequence = loadSnapshot(Path.of(FILE_NAME), states);
+        long sequence = snapshotSequence;
+
+        Path journalFile = Path.of(JOURNAL_FILE_NAME);
+        if (!Files.exists(journalFile)) {
+            return new Replay(sequence, 0);
+        }
+
+        int replayed = 0;
+        // Fin de la dernière ligne lue (séparateur compris : le journal n'écrit que des '\n')
+        long validBytes = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                    continue;
+                }
+
+                JournalEntry entry;
+                try {
+                    entry = GSON.fromJson(line, JournalEntry.class);
+                } catch (JsonParseException e) {
+                    // Dernière ligne tronquée par un arrêt brutal : le reste du journal est ignoré
+                    SafariMod.LOGGER.warn("Entrée de journal illisible, relecture interrompue");
+                    break;
+                }
+                validBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+
+                sequence = Math.max(sequence, entry.sequence);
+                if (entry.sequence <= snapshotSequence) continue; // Déjà incluse dans le snapshot
+
+                if (entry.event == SessionEvent.EXPIRE || entry.state == null) {
+                    states.remove(entry.player, 0);
+                } else {
+                    states.put(entry.player, entry.state);
+                }
+                replayed++;
+            }
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de la relecture du journal des sessions", e);
+            // Longueur inconnue : le journal n'est pas tronqué
+            validBytes = -1;
+        }
+
+        SafariMod.LOGGER.debug("{} entrées de journal rejouées", replayed);
+        return new Replay(sequence, validBytes);
+    }
+
+    /*
+     * Retire du journal la fin illisible laissée par une écriture interrompue : sans cela, les entrées suivantes
+     * seraient ajoutées à la suite du fragment et ignorées à la prochaine relecture. Une dernière entrée complète
+     * sans son retour à la ligne le reçoit. Retourne la taille du journal.
+     */
+    private long repairJournal(Replay replay) throws IOException {
+        Path journalFile = Path.of(JOURNAL_FILE_NAME);
+        if (!Files.exists(journalFile)) return 0;
+
+        long size = Files.size(journalFile);
+        if (replay.journalBytes < 0 || replay.journalBytes == size) return size;
+
+        FileChannel channel = openJournal();
+        if (replay.journalBytes > size) {
+            // Dernière entrée lue mais sans retour à la ligne
+            writeFully(channel, new byte[]{'\n'});
+        } else {
+            channel.truncate(replay.journalBytes);
+            SafariMod.LOGGER.warn("Fin du journal des sessions illisible retirée ({} octets)", size - replay.journalBytes);
+        }
+        channel.force(false);
+        return channel.size();
+    }
+
+    @Override
+    public void write(List<Change> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        StringBuilder lines = new StringBuilder();
+        for (Change change : changes) {
+            JournalEntry entry = new JournalEntry(change.event(), change.playerId(), change.state());
+            entry.sequence = ++lastSequence;
+            GSON.toJson(entry, lines);
+            lines.append('\n');
+        }
+
+        byte[] data = lines.toString().getBytes(StandardCharsets.UTF_8);
+        FileChannel channel = openJournal();
+        writeFully(channel, data);
+        channel.force(false);
+        journalBytes += data.length;
+        SafariMetrics.recordJournalBytes(data.length);
+    }
+
+    @Override
+    public boolean needsCheckpoint() {
+        return journalBytes > COMPACTION_THRESHOLD_BYTES;
+    }
+
+    /*
+     * Le snapshot reflète l'état courant, donc toutes les entrées déjà écrites : le journal peut être vidé.
+     * Une table inchangée depuis le dernier snapshot n'est pas réécrite.
+     */
+    @Override
+    public void checkpoint(SessionStore.Snapshot sessions) throws IOException {
+        if (sessions.version() != snapshotVersion) {
+            Path file = Path.of(FILE_NAME);
+            Files.createDirectories(file.getParent()); // Crée le dossier si inexistant
+
+            byte[] data = encodeSnapshot(sessions, lastSequence);
+            writeAtomically(file, data);
+            SafariMetrics.recordSnapshotBytes(data.length);
+            snapshotVersion = sessions.version();
+        }
+        FileChannel channel = openJournal();
+        channel.truncate(0);
+        channel.force(true);
+        journalBytes = 0;
+        SafariMod.LOGGER.debug("Journal des sessions compacté (séquence {})", lastSequence);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    public static byte[] encodeJournalLine(long sequence, SessionEvent event, UUID playerId, PlayerSafariState state) {
+        JournalEntry entry = new JournalEntry(event, playerId, event == SessionEvent.EXPIRE ? null : state);
+        entry.sequence = sequence;
+        return (GSON.toJson(entry) + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode un snapshot en flux directement depuis la copie compacte, sans construire d'objet par session.
+     * Exposé pour les benchmarks et le simulateur : même encodage que les écritures réelles.
+     *
+     * @param sessions        La copie des sessions.
+     * @param journalSequence La dernière séquence de journal couverte par le snapshot.
+     * @return Le document JSON en UTF-8.
+     */
+    public static byte[] encodeSnapshot(SessionStore.Snapshot sessions, long journalSequence) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + sessions.size() * 220);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("journalSequence").value(journalSequence);
+            writer.name("states").beginObject();
+            for (int i = 0; i < sessions.size(); i++) {
+                writer.name(sessions.playerId(i).toString()).beginObject();
+                if (sessions.hasOrigin(i)) {
+                    writer.name("originalPosition").beginObject()
+                            .name("x").value(sessions.originX(i))
+                            .name("y").value(sessions.originY(i))
+                            .name("z").value(sessions.originZ(i))
+                            .endObject();
+                }
+                if (sessions.dimensionId(i) != null) {
+                    writer.name("originalDimensionId").value(sessions.dimensionId(i));
+                }
+                writer.name("zoneId").value(sessions.zoneId(i));
+                if (sessions.instance(i) != 0) {
+                    writer.name("instance").value(sessions.instance(i));
+                }
+                writer.name("expiryTimeMillis").value(sessions.expiryTimeMillis(i));
+                if (sessions.logoutTimeMillis(i) != SessionStore.NO_LOGOUT) {
+                    writer.name("logoutTimeMillis").value(sessions.logoutTimeMillis(i));
+                }
+                writer.name("fiveMinuteWarningSent").value(sessions.fiveMinuteWarningSent(i));
+                writer.name("oneMinuteWarningSent").value(sessions.oneMinuteWarningSent(i));
+                writer.endObject();
+            }
+            writer.endObject();
+            writer.endObject();
+        } catch (IOException e) {
+            // Impossible en mémoire
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /* Retourne la séquence de journal couverte par le snapshot (0 pour l'ancien format sans journal) */
+    private static long loadSnapshot(Path file, SessionStore states) {
+        if (!Files.exists(file)) return 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return decodeSnapshot(reader, states);
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            SafariMod.LOGGER.error("Erreur lors du chargement des états des joueurs", e);
+            return 0;
+        }
+    }
+
+    /* Lecture en flux : les sessions vont directement dans le stockage compact. L'ancien format est la table seule */
+    static long decodeSnapshot(Reader source, SessionStore states) throws IOException {
+        JsonReader reader = new JsonReader(source);
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) return 0;
+
+        long sequence = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "journalSequence" -> sequence = reader.nextLong();
+                case "states" -> {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        readState(UUID.fromString(reader.nextName()), reader, states);
+                    }
+                    reader.endObject();
+                }
+                default -> readState(UUID.fromString(name), reader, states);
+            }
+        }
+        reader.endObject();
+        return sequence;
+    }
+
+    private static void readState(UUID playerId, JsonReader reader, SessionStore states) throws IOException {
+        boolean hasOrigin = false;
+        long origin = 0;
+        String dimensionId = null;
+        int zoneId = 0;
+        int instance = 0;
+        long expiry = 0;
+        long logout = SessionStore.NO_LOGOUT;
+        boolean fiveMinuteWarning = false;
+        boolean oneMinuteWarning = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (field) {
+                case "originalPosition" -> {
+                    int x = 0, y = 0, z = 0;
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "x" -> x = reader.nextInt();
+                            case "y" -> y = reader.nextInt();
+                            case "z" -> z = reader.nextInt();
+                            default -> reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    hasOrigin = true;
+                    origin = Position.asLong(x, y, z);
+                }
+                case "originalDimensionId" -> dimensionId = reader.nextString();
+                case "zoneId" -> zoneId = reader.nextInt();
+                case "instance" -> instance = reader.nextInt();
+                case "expiryTimeMillis", "remainingTimeMillis" -> expiry = reader.nextLong();
+                case "logoutTimeMillis" -> logout = reader.nextLong();
+                case "fiveMinuteWarningSent" -> fiveMinuteWarning = reader.nextBoolean();
+                case "oneMinuteWarningSent" -> oneMinuteWarning = reader.nextBoolean();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        states.put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), hasOrigin, origin,
+                dimensionId, zoneId, instance, expiry, logout, fiveMinuteWarning, oneMinuteWarning);
+    }
+
+    private FileChannel openJournal() throws IOException {
+        if (journal == null || !journal.isOpen()) {
+            Path file = Path.of(JOURNAL_FILE_NAME);
+            Files.createDirectories(file.getParent());
+            journal = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return journal;
+    }
+
+    /* Écriture dans un fichier temporaire synchronisé sur disque puis renommé par-dessus l'original */
+    static void writeAtomically(Path target, byte[] data) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, data);
+            channel.force(true);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static void writeFully(FileChannel channel, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private record Replay(long sequence, long journalBytes) {
+    }
+
+    private static class JournalEntry {
+        long sequence;
+        SessionEvent event;
+        UUID player;
+        PlayerSafariState state;
+
+        JournalEntry(SessionEvent event, UUID player, PlayerSafariState state) {
+            this.event = event;
+            this.player = player;
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.Payment;
+import com.floye.safarizone.session.Payment.Status;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Registre des paiements ({@code config/SafariZone/payments.log}) : chaque changement d'état d'un paiement y ajoute
+ * une ligne, synchronisée sur disque avant l'opération économique suivante.
+ * <p>
+ * Impactor ne reçoit pas la clé d'un paiement : c'est ce registre qui empêche un second débit. Un joueur avec un
+ * paiement ouvert ({@link Payment#isOpen}) n'est pas débité de nouveau. Un débit est réglé dès que l'entrée qu'il
+ * paie est écrite par {@link PlayerStateManager} ({@link #settle}). Au démarrage, le registre est relu puis réécrit
+ * avec ses seuls paiements ouverts ({@link #open}), que l'économie reprend.
+ * <p>
+ * Les écritures tournent sur les threads d'entrée/sortie ; les méthodes sont synchronisées.
+ */
+public final class PaymentLedger {
+    private static final String FILE_NAME = "config/SafariZone/payments.log";
+    private static final Gson GSON = new Gson();
+
+    // Paiements ouverts, par clé
+    private static final Map<UUID, Payment> open = new LinkedHashMap<>();
+    private static FileChannel channel;
+
+    private PaymentLedger() {
+    }
+
+    /**
+     * Relit le registre et le réécrit avec ses seuls paiements ouverts (démarrage du serveur).
+     *
+     * @return Les paiements ouverts au dernier arrêt, dans l'ordre du registre.
+     * @throws IOException si le registre ne peut pas être lu ou réécrit.
+     */
+    public static synchronized List<Payment> open() throws IOException {
+        close();
+        open.clear();
+        Path file = Path.of(FILE_NAME);
+        if (!Files.exists(file)) return List.of();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+
+                Entry entry;
+                try {
+                    entry = GSON.fromJson(line, Entry.class);
+                } catch (JsonParseException e) {
+                    // Dernière ligne tronquée par un arrêt brutal : le reste du registre est ignoré
+                    SafariMod.LOGGER.warn("Entrée du registre des paiements illisible, relecture interrompue");
+                    break;
+                }
+                Payment payment = new Payment(entry.key, entry.player, entry.zone, entry.amount, entry.status);
+                if (payment.isOpen()) {
+                    open.put(payment.key, payment);
+                } else {
+                    open.remove(payment.key);
+                }
+            }
+        }
+
+        StringBuilder compacted = new StringBuilder();
+        for (Payment payment : open.values()) {
+            compacted.append(GSON.toJson(new Entry(payment))).append('\n');
+        }
+        JsonSessionStorage.writeAtomically(file, compacted.toString().getBytes(StandardCharsets.UTF_8));
+        return new ArrayList<>(open.values());
+    }
+
+    /**
+     * Ouvre un débit : le paiement passe dans le registre avant que le montant ne soit retiré.
+     *
+     * @param payment Le paiement, dans l'état {@link Status#CHARGING}.
+     * @return false si le joueur a déjà un paiement ouvert ou si le registre ne peut pas être écrit : rien ne doit
+     * être débité.
+     */
+    public static synchronized boolean begin(Payment payment) {
+        for (Payment other : open.values()) {
+            if (other.playerId.equals(payment.playerId) && other != payment) {
+                SafariMod.LOGGER.warn("Paiement {} de {} encore ouvert ({}), nouveau débit refusé", other.key, other.playerId, other.status());
+                return false;
+            }
+        }
+        return record(payment);
+    }
+
+    /**
+     * Enregistre l'état courant d'un paiement.
+     *
+     * @param payment Le paiement.
+     * @return false si le registre n'a pas pu être écrit.
+     */
+    public static synchronized boolean record(Payment payment) {
+        try {
+            byte[] line = (GSON.toJson(new Entry(payment)) + '\n').getBytes(StandardCharsets.UTF_8);
+            FileChannel file = openFile();
+            JsonSessionStorage.writeFully(file, line);
+            file.force(false);
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de l'écriture du paiement {} ({}) de {}", payment.key, payment.status(), payment.playerId, e);
+            return false;
+        }
+        if (payment.isOpen()) {
+            open.put(payment.key, payment);
+        } else {
+            open.remove(payment.key);
+        }
+        return true;
+    }
+
+    /**
+     * Règle le débit d'une entrée dont la session vient d'être écrite : il ne sera plus remboursé.
+     *
+     * @param playerId L'UUID du joueur.
+     * @param zoneId   La zone de la session écrite.
+     */
+    public static synchronized void settle(UUID playerId, int zoneId) {
+        if (open.isEmpty()) return;
+
+        for (Payment payment : new ArrayList<>(open.values())) {
+            if (payment.playerId.equals(playerId) && payment.zoneId == zoneId &&
+                    payment.transition(Status.CHARGED, Status.SETTLED) && !record(payment)) {
+                // Réglé à la prochaine écriture de la session
+                payment.setStatus(Status.CHARGED);
+            }
+        }
+    }
+
+    /* Arrêt du serveur : les paiements ouverts restent dans le registre pour le prochain démarrage */
+    public static synchronized void close() {
+        if (channel == null) return;
+
+        try {
+            channel.close();
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de la fermeture du registre des paiements", e);
+        }
+        channel = null;
+    }
+
+    private static FileChannel openFile() throws IOException {
+        if (channel == null || !channel.isOpen()) {
+            Path file = Path.of(FILE_NAME);
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+
+    private static class Entry {
+        UUID key;
+        UUID player;
+        int zone;
+        double amount;
+        Status status;
+
+        private Entry() {
+        }
+
+        private Entry(Payment payment) {
+            this.key = payment.key;
+            this.player = payment.playerId;
+            this.zone = payment.zoneId;
+            this.amount = payment.amount;
+            this.status = payment.status();
+        }
+    }
+}
@@ -1,61 +1,324 @@
 package com.floye.safarizone.config;
 
 import com.floye.safarizone.SafariMod;
-import com.floye.safarizone.util.BlockPosAdapter;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionStore;
+import com.floye.safarizone.util.SafariJfr;
+import com.floye.safarizone.util.SafariMetrics;
+import com.floye.safarizone.util.SafariRuntime;
 import com.floye.safarizone.util.SafariZoneManager;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
-import net.minecraft.util.math.BlockPos;
-
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Persistance des sessions : les transitions sont regroupées en lots puis écrites par le {@link SessionStorage}
+ * choisi dans la configuration (fichiers JSON, base H2 embarquée ou un fichier par joueur).
+ * <p>
+ * Le coût d'un événement ne dépend que de la session concernée ; le stockage peut demander en plus un point de
+ * sauvegarde complet, fait en arrière-plan à partir d'une copie cohérente des sessions.
+ */
 public class PlayerStateManager {
-    private static final String FILE_NAME = "config/SafariZone/player_states.json";
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .excludeFieldsWithModifiers(java.lang.reflect.Modifier.TRANSIENT)
-            .registerTypeAdapter(BlockPos.class, new BlockPosAdapter()) // Register BlockPos adapter
-            .create();
-    private static final Type TYPE = new TypeToken<Map<UUID, SafariZoneManager.PlayerSafariState>>() {}.getType();
+    private static final long FLUSH_DELAY_MILLIS = 1000;
+    // Nouvel essai après un échec d'écriture : délai doublé à chaque échec consécutif, au plus 1 min
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long FINAL_FLUSH_TIMEOUT_SECONDS = 10;
+
+    // Write-behind : les événements s'accumulent, une seule écriture en arrière-plan absorbe la rafale
+    private static final Queue<SessionStorage.Change> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Les écritures tournent sur des threads virtuels : le verrou les sérialise
+    private static final ReentrantLock writeLock = new ReentrantLock();
+    // Lot dont l'écriture a échoué, remis en tête du lot suivant (les événements plus récents le remplacent) ; sous writeLock
+    private static final Map<UUID, SessionStorage.Change> failed = new LinkedHashMap<>();
+    private static int consecutiveFailures;
+
+    // Ouvert au chargement, fermé par l'écriture finale
+    private static volatile SessionStorage storage;
+
+    /**
+     * Journalise une transition de session. L'écriture est différée et regroupée avec les autres
+     * événements survenus avant le prochain flush.
+     *
+     * @param event    La transition.
+     * @param playerId L'UUID du joueur.
+     * @param state    L'état après la transition (ignoré pour {@link SessionEvent#EXPIRE}).
+     */
+    public static void record(SessionEvent event, UUID playerId, PlayerSafariState state) {
+        pending.add(new SessionStorage.Change(event, playerId, event == SessionEvent.EXPIRE ? null : state));
+        scheduleFlush(FLUSH_DELAY_MILLIS);
+    }
+
+    private static void scheduleFlush(long delayMillis) {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                SafariRuntime.scheduler().schedule(() -> SafariRuntime.io().execute(PlayerStateManager::flushPending),
+                        delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Serveur arrêté : les événements attendent l'écriture finale ou le prochain démarrage
+                flushScheduled.set(false);
+            }
+        }
+    }
 
-    public static void savePlayerStates(Map<UUID, SafariZoneManager.PlayerSafariState> playerStates) {
+    /**
+     * Ouvre le stockage configuré et charge toutes les sessions. Un stockage chargé à la demande
+     * ({@link SessionStorage#isLazy}) ne lit rien ici : chaque session est lue à la connexion de son joueur
+     * ({@link #loadPlayerState}).
+     * <p>
+     * Aucun stockage de secours : après une migration, les fichiers JSON sont renommés et un repli sur eux
+     * démarrerait sans aucune session, puis écraserait celles du stockage configuré.
+     *
+     * @return Les sessions enregistrées.
+     * @throws IllegalStateException si le stockage configuré ne peut pas être ouvert ou lu ; le serveur ne doit pas
+     *                               démarrer sans ses sessions.
+     */
+    public static SessionStore loadPlayerStates() {
+        writeLock.lock();
         try {
-            File file = new File(FILE_NAME);
-            file.getParentFile().mkdirs(); // Crée le dossier si inexistant
+            closeStorage();
+            SessionStorage opened = openStorage(ConfigLoader.getStorageBackend());
+            if (opened.isLazy()) {
+                storage = opened;
+                return new SessionStore();
+            }
 
-            try (FileWriter writer = new FileWriter(file)) {
-                GSON.toJson(playerStates, writer);
-                SafariMod.LOGGER.info("Sauvegarde des états joueurs effectuée");
+            SafariJfr.SessionLoad event = new SafariJfr.SessionLoad();
+            event.begin();
+            SessionStore states;
+            try {
+                states = opened.loadAll();
+            } catch (IOException e) {
+                closeQuietly(opened);
+                throw e;
             }
+            event.end();
+            if (event.shouldCommit()) {
+                event.storage = opened.getClass().getSimpleName();
+                event.sessions = states.size();
+                event.commit();
+            }
+            storage = opened;
+            return states;
+        } catch (IOException | LinkageError e) {
+            throw new IllegalStateException("Stockage des sessions " + ConfigLoader.getStorageBackend()
+                    + " indisponible, démarrage SafariZone interrompu", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return Le stockage ouvert, pour les requêtes (zone, échéance) qui n'ont pas besoin de la table en mémoire ;
+     * null si le serveur n'est pas démarré.
+     */
+    public static SessionStorage storage() {
+        return storage;
+    }
+
+    /**
+     * @return true si les sessions ne sont pas toutes en mémoire et doivent être lues à la connexion.
+     */
+    public static boolean isLazy() {
+        SessionStorage current = storage;
+        return current != null && current.isLazy();
+    }
+
+    /**
+     * Lit la session d'un joueur sur un thread d'entrée/sortie. Les événements en attente sont écrits d'abord :
+     * une session expirée mais pas encore retirée du stockage n'est pas relue.
+     *
+     * @param playerId L'UUID du joueur.
+     * @return L'état enregistré, null si le joueur n'a pas de session.
+     */
+    public static CompletableFuture<PlayerSafariState> loadPlayerState(UUID playerId) {
+        return CompletableFuture.supplyAsync(() -> {
+            writeLock.lock();
+            try {
+                writePending();
+                SessionStorage current = storage;
+                if (current == null) return null;
+
+                SafariJfr.SessionLoad event = new SafariJfr.SessionLoad();
+                event.begin();
+                PlayerSafariState state = current.load(playerId);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.storage = current.getClass().getSimpleName();
+                    event.player = playerId.toString();
+                    event.sessions = state != null ? 1 : 0;
+                    event.commit();
+                }
+                return state;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                writeLock.unlock();
+            }
+        }, SafariRuntime.io());
+    }
+
+    private static SessionStorage openStorage(ConfigLoader.StorageBackend backend) throws IOException {
+        return switch (backend) {
+            case H2 -> H2SessionStorage.open();
+            case SHARDED -> ShardedSessionStorage.open();
+            case JSON -> new JsonSessionStorage();
+        };
+    }
+
+    private static void closeQuietly(SessionStorage opened) {
+        try {
+            opened.close();
         } catch (IOException e) {
-            SafariMod.LOGGER.error("Erreur lors de l'enregistrement des états des joueurs", e);
+            SafariMod.LOGGER.warn("Erreur lors de la fermeture du stockage des sessions", e);
         }
     }
 
-    public static Map<UUID, SafariZoneManager.PlayerSafariState> loadPlayerStates() {
-        File file = new File(FILE_NAME);
-        if (!file.exists()) {
-            return new ConcurrentHashMap<>();
+    /**
+     * Écrit les événements en attente, fait un point de sauvegarde puis ferme le stockage, sur le thread
+     * appelant (arrêt du serveur, après l'arrêt du runtime). L'attente d'une écriture encore en cours est
+     * bornée par un délai.
+     */
+    public static void flushNow() {
+        try {
+            if (!writeLock.tryLock(FINAL_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                SafariMod.LOGGER.error("Sauvegarde finale des états joueurs impossible : écriture précédente bloquée");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
         }
 
-        try (FileReader reader = new FileReader(file)) {
-            Map<UUID, SafariZoneManager.PlayerSafariState> states = GSON.fromJson(reader, TYPE);
-            return states != null ? states : new ConcurrentHashMap<>();
+        try {
+            if (storage == null) return;
+
+            flushPending();
+            if (!failed.isEmpty()) {
+                SafariMod.LOGGER.error("{} sessions n'ont pas pu être écrites avant l'arrêt, nouvel essai au prochain démarrage", failed.size());
+            }
+            checkpoint();
         } catch (IOException e) {
-            SafariMod.LOGGER.error("Erreur lors du chargement des états des joueurs", e);
-            return new ConcurrentHashMap<>();
+            SafariMod.LOGGER.error("Sauvegarde finale des états joueurs incomplète", e);
+        } finally {
+            closeStorage();
+            writeLock.unlock();
         }
     }
 
-    public static void forceSavePlayerStates() {
-        savePlayerStates(SafariZoneManager.getPlayerStates());
+    /* Écriture des événements en attente ; le verrou est ré-entrant pour flushNow */
+    private static void flushPending() {
+        writeLock.lock();
+        try {
+            writePending();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /* Un lot ou un point de sauvegarde en échec est retenté plus tard, avec un délai croissant : rien n'est perdu */
+    private static void writePending() {
+        flushScheduled.set(false);
+        SessionStorage current = storage;
+        if (current == null) return;
+
+        // Seul le dernier état de chaque joueur compte : les transitions intermédiaires du lot sont omises
+        Map<UUID, SessionStorage.Change> latest = new LinkedHashMap<>(failed);
+        failed.clear();
+        SessionStorage.Change change;
+        while ((change = pending.poll()) != null) {
+            SessionStorage.Change previous = latest.remove(change.playerId());
+            // Une entrée suivie d'autres transitions de la même session reste une entrée : son débit sera réglé
+            if (previous != null && previous.event() == SessionEvent.ENTER && change.state() != null) {
+                change = new SessionStorage.Change(SessionEvent.ENTER, change.playerId(), change.state());
+            }
+            latest.put(change.playerId(), change);
+        }
+
+        if (!latest.isEmpty() && !write(current, latest)) return;
+
+        try {
+            if (current.needsCheckpoint()) {
+                checkpoint();
+            }
+            consecutiveFailures = 0;
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors du point de sauvegarde des sessions", e);
+            scheduleRetry();
+        }
+    }
+
+    /* false si le lot n'a pas pu être écrit : il est conservé pour le prochain essai */
+    private static boolean write(SessionStorage current, Map<UUID, SessionStorage.Change> latest) {
+        try {
+            SafariJfr.SessionSave event = new SafariJfr.SessionSave();
+            event.begin();
+            long bytesBefore = SafariMetrics.journalBytes();
+            long start = System.nanoTime();
+            current.write(new ArrayList<>(latest.values()));
+            SafariMetrics.JOURNAL_FLUSH.recordSince(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.storage = current.getClass().getSimpleName();
+                event.sessions = latest.size();
+                event.bytes = SafariMetrics.journalBytes() - bytesBefore;
+                event.commit();
+            }
+            // Une entrée écrite a été payée : son débit n'est plus à rembourser
+            for (SessionStorage.Change change : latest.values()) {
+                if (change.event() == SessionEvent.ENTER && change.state() != null) {
+                    PaymentLedger.settle(change.playerId(), change.state().zoneId);
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de l'écriture de {} sessions, nouvel essai différé", latest.size(), e);
+            failed.putAll(latest);
+            scheduleRetry();
+            return false;
+        }
+    }
+
+    private static void scheduleRetry() {
+        consecutiveFailures++;
+        scheduleFlush(Math.min(MAX_RETRY_DELAY_MILLIS, FLUSH_DELAY_MILLIS << Math.min(consecutiveFailures, 6)));
+    }
+
+    private static void checkpoint() throws IOException {
+        SafariJfr.SessionSave event = new SafariJfr.SessionSave();
+        event.begin();
+        long bytesBefore = SafariMetrics.snapshotBytes();
+        long start = System.nanoTime();
+        SessionStore.Snapshot sessions = SafariZoneManager.getPlayerStates().snapshot();
+        storage.checkpoint(sessions);
+        SafariMetrics.SNAPSHOT_WRITE.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.storage = storage.getClass().getSimpleName();
+            event.checkpoint = true;
+            event.sessions = sessions.size();
+            event.bytes = SafariMetrics.snapshotBytes() - bytesBefore;
+            event.commit();
+        }
+    }
+
+    private static void closeStorage() {
+        SessionStorage current = storage;
+        if (current == null) return;
+
+        storage = null;
+        try {
+            current.close();
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de la fermeture du stockage des sessions", e);
+        }
     }
-}
\ No newline at end of file
+}
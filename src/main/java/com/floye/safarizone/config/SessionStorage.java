@@ -0,0 +1,81 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionStore;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stockage durable des sessions. {@link PlayerStateManager} regroupe les transitions et choisit
+ * l'implémentation ({@code "storage"} dans la configuration) ; les appels sont sérialisés par son verrou
+ * d'écriture, les requêtes peuvent venir de n'importe quel thread.
+ */
+public interface SessionStorage extends AutoCloseable {
+
+    /* Modification d'une session ; un état null retire la session */
+    record Change(SessionEvent event, UUID playerId, PlayerSafariState state) {
+    }
+
+    /**
+     * Charge toutes les sessions (démarrage du serveur).
+     *
+     * @return Le stockage mémoire des sessions.
+     */
+    SessionStore loadAll() throws IOException;
+
+    /**
+     * @return L'état enregistré du joueur, ou null s'il n'a pas de session.
+     */
+    PlayerSafariState load(UUID playerId) throws IOException;
+
+    /**
+     * @return true si les sessions sont chargées une à une à la connexion des joueurs ({@link #load}) plutôt
+     * qu'en totalité au démarrage.
+     */
+    default boolean isLazy() {
+        return false;
+    }
+
+    List<UUID> findByZone(int zoneId) throws IOException;
+
+    /**
+     * @param timeMillis Une date absolue.
+     * @return Les joueurs dont l'échéance enregistrée est antérieure à cette date.
+     */
+    List<UUID> findExpiringBefore(long timeMillis) throws IOException;
+
+    /**
+     * Écrit un lot de modifications, au plus une par joueur.
+     *
+     * @param changes Les modifications, dans l'ordre.
+     */
+    void write(List<Change> changes) throws IOException;
+
+    default void upsert(UUID playerId, PlayerSafariState state) throws IOException {
+        write(Collections.singletonList(new Change(SessionEvent.ENTER, playerId, state)));
+    }
+
+    default void delete(UUID playerId) throws IOException {
+        write(Collections.singletonList(new Change(SessionEvent.EXPIRE, playerId, null)));
+    }
+
+    /**
+     * @return true si le stockage demande un point de sauvegarde complet ({@link #checkpoint}).
+     */
+    boolean needsCheckpoint();
+
+    /**
+     * Point de sauvegarde complet à partir de la copie des sessions, par exemple pour compacter un journal.
+     * Appelé lorsque {@link #needsCheckpoint()} le demande et à l'arrêt du serveur.
+     *
+     * @param sessions La copie cohérente des sessions en mémoire.
+     */
+    void checkpoint(SessionStore.Snapshot sessions) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,275 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionStore;
+import com.floye.safarizone.util.SafariMetrics;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Stockage des sessions en un petit fichier par joueur ({@code config/SafariZone/players/<ab>/<uuid>.json}, 256
+ * dossiers selon le premier octet de l'UUID) accompagné d'un index des échéances ({@code players/index.bin}).
+ * <p>
+ * Rien n'est lu au démarrage : la session d'un joueur est chargée à sa connexion ({@link #load}), le coût du
+ * démarrage et d'une connexion ne dépend plus du nombre de sessions enregistrées. L'index ne sert qu'aux requêtes
+ * par zone ou par échéance : chaque écriture y ajoute un enregistrement de {@link #RECORD_BYTES} octets par joueur,
+ * le dernier enregistrement d'un joueur fait foi, et l'index est réécrit sans les enregistrements périmés lorsqu'il
+ * a doublé depuis sa dernière réécriture.
+ * <p>
+ * Tant que le marqueur {@code players/migrated} n'existe pas, les sessions du stockage JSON sont réparties dans les
+ * fichiers par joueur, le marqueur créé puis les fichiers JSON renommés ({@code .migrated}) : un import interrompu
+ * est repris en entier à l'ouverture suivante.
+ */
+public class ShardedSessionStorage implements SessionStorage {
+    private static final String DIRECTORY = "config/SafariZone/players";
+    private static final String INDEX_FILE_NAME = "index.bin";
+    private static final String MIGRATED_MARKER = "migrated";
+    // Joueur (2 longs), échéance, zone, indicateurs
+    private static final int RECORD_BYTES = 32;
+    private static final int REMOVED = 1;
+    private static final long MIN_COMPACTION_BYTES = 256 * 1024;
+    private static final Gson GSON = new Gson();
+
+    private final Path root;
+    private final Path indexFile;
+    // Écrits sous le verrou de PlayerStateManager
+    private FileChannel index;
+    private long indexBytes;
+    private long compactedBytes;
+
+    private ShardedSessionStorage(Path root) throws IOException {
+        this.root = root;
+        this.indexFile = root.resolve(INDEX_FILE_NAME);
+        this.indexBytes = Files.exists(indexFile) ? Files.size(indexFile) : 0;
+        this.compactedBytes = indexBytes;
+    }
+
+    /**
+     * Ouvre le stockage et, si l'import des sessions JSON n'est pas terminé, l'effectue.
+     *
+     * @return Le stockage ouvert.
+     * @throws IOException si le dossier des sessions ne peut pas être créé ou l'import échoue.
+     */
+    public static ShardedSessionStorage open() throws IOException {
+        Path root = Path.of(DIRECTORY);
+        Files.createDirectories(root);
+
+        ShardedSessionStorage storage = new ShardedSessionStorage(root);
+        if (!Files.exists(root.resolve(MIGRATED_MARKER))) {
+            try {
+                storage.migrateFromJson();
+            } catch (IOException e) {
+                storage.close();
+                throw e;
+            }
+        }
+        return storage;
+    }
+
+    /*
+     * Import unique, seul moment où toutes les sessions sont lues. Le marqueur n'est créé qu'une fois toutes les
+     * sessions écrites : un import interrompu est refait en entier, une session réécrite ne change rien (le dernier
+     * enregistrement de l'index fait foi). Les fichiers JSON ne sont renommés qu'ensuite.
+     */
+    private void migrateFromJson() throws IOException {
+        Path snapshot = Path.of(JsonSessionStorage.FILE_NAME);
+        Path journal = Path.of(JsonSessionStorage.JOURNAL_FILE_NAME);
+        int imported = 0;
+        if (Files.exists(snapshot) || Files.exists(journal)) {
+            SessionStore sessions;
+            try (JsonSessionStorage json = new JsonSessionStorage()) {
+                sessions = json.loadAll();
+            }
+            SessionStore.Snapshot players = sessions.snapshot();
+            List<Change> changes = new ArrayList<>(players.size());
+            for (int i = 0; i < players.size(); i++) {
+                UUID playerId = players.playerId(i);
+                changes.add(new Change(SessionEvent.ENTER, playerId, sessions.get(playerId)));
+            }
+            write(changes);
+            imported = changes.size();
+        }
+        JsonSessionStorage.writeAtomically(root.resolve(MIGRATED_MARKER), new byte[0]);
+
+        for (Path file : new Path[]{snapshot, journal}) {
+            if (Files.exists(file)) {
+                Files.move(file, file.resolveSibling(file.getFileName() + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (imported > 0) {
+            SafariMod.LOGGER.info("{} sessions importées du stockage JSON vers les fichiers par joueur", imported);
+        }
+    }
+
+    @Override
+    public boolean isLazy() {
+        return true;
+    }
+
+    /* Parcourt tous les fichiers : outils et migrations uniquement, jamais au démarrage */
+    @Override
+    public SessionStore loadAll() throws IOException {
+        SessionStore states = new SessionStore();
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.getFileName().toString().endsWith(".json"))::iterator) {
+                String name = file.getFileName().toString();
+                UUID playerId = UUID.fromString(name.substring(0, name.length() - ".json".length()));
+                PlayerSafariState state = read(file);
+                if (state != null) {
+                    states.put(playerId, state);
+                }
+            }
+        }
+        return states;
+    }
+
+    @Override
+    public PlayerSafariState load(UUID playerId) throws IOException {
+        return read(shard(playerId));
+    }
+
+    private static PlayerSafariState read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return GSON.fromJson(reader, PlayerSafariState.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Session illisible: " + file, e);
+        }
+    }
+
+    private Path shard(UUID playerId) {
+        String name = playerId.toString();
+        return root.resolve(name.substring(0, 2)).resolve(name + ".json");
+    }
+
+    @Override
+    public List<UUID> findByZone(int zoneId) throws IOException {
+        List<UUID> players = new ArrayList<>();
+        readIndex().forEach((playerId, record) -> {
+            if (record.zoneId == zoneId) players.add(playerId);
+        });
+        return players;
+    }
+
+    @Override
+    public List<UUID> findExpiringBefore(long timeMillis) throws IOException {
+        List<UUID> players = new ArrayList<>();
+        readIndex().forEach((playerId, record) -> {
+            if (record.expiryMillis < timeMillis) players.add(playerId);
+        });
+        return players;
+    }
+
+    /* Dernier enregistrement de chaque joueur encore en session ; un enregistrement incomplet en fin de fichier est ignoré */
+    private Map<UUID, IndexRecord> readIndex() throws IOException {
+        Map<UUID, IndexRecord> records = new HashMap<>();
+        if (!Files.exists(indexFile)) return records;
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+        while (buffer.remaining() >= RECORD_BYTES) {
+            UUID playerId = new UUID(buffer.getLong(), buffer.getLong());
+            long expiry = buffer.getLong();
+            int zoneId = buffer.getInt();
+            int flags = buffer.getInt();
+            if ((flags & REMOVED) != 0) {
+                records.remove(playerId);
+            } else {
+                records.put(playerId, new IndexRecord(zoneId, expiry));
+            }
+        }
+        return records;
+    }
+
+    /* Un fichier par joueur modifié, puis un seul ajout à l'index pour tout le lot */
+    @Override
+    public void write(List<Change> changes) throws IOException {
+        if (changes.isEmpty()) return;
+
+        ByteBuffer records = ByteBuffer.allocate(changes.size() * RECORD_BYTES);
+        long written = records.capacity();
+        for (Change change : changes) {
+            Path shard = shard(change.playerId());
+            PlayerSafariState state = change.state();
+            if (state == null) {
+                Files.deleteIfExists(shard);
+            } else {
+                byte[] data = GSON.toJson(state).getBytes(StandardCharsets.UTF_8);
+                Files.createDirectories(shard.getParent());
+                JsonSessionStorage.writeAtomically(shard, data);
+                written += data.length;
+            }
+
+            records.putLong(change.playerId().getMostSignificantBits());
+            records.putLong(change.playerId().getLeastSignificantBits());
+            records.putLong(state != null ? state.expiryTimeMillis : 0);
+            records.putInt(state != null ? state.zoneId : 0);
+            records.putInt(state != null ? 0 : REMOVED);
+        }
+
+        FileChannel channel = openIndex();
+        JsonSessionStorage.writeFully(channel, records.array());
+        channel.force(false);
+        indexBytes += records.capacity();
+        SafariMetrics.recordJournalBytes(written);
+    }
+
+    @Override
+    public boolean needsCheckpoint() {
+        return indexBytes > Math.max(MIN_COMPACTION_BYTES, compactedBytes * 2);
+    }
+
+    /* Les fichiers par joueur sont déjà à jour : seul l'index est réécrit, sans ses enregistrements périmés */
+    @Override
+    public void checkpoint(SessionStore.Snapshot sessions) throws IOException {
+        if (!needsCheckpoint()) return;
+
+        Map<UUID, IndexRecord> records = readIndex();
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_BYTES);
+        records.forEach((playerId, record) -> {
+            buffer.putLong(playerId.getMostSignificantBits());
+            buffer.putLong(playerId.getLeastSignificantBits());
+            buffer.putLong(record.expiryMillis);
+            buffer.putInt(record.zoneId);
+            buffer.putInt(0);
+        });
+
+        close();
+        JsonSessionStorage.writeAtomically(indexFile, buffer.array());
+        indexBytes = compactedBytes = buffer.capacity();
+        SafariMetrics.recordSnapshotBytes(buffer.capacity());
+        SafariMod.LOGGER.debug("Index des sessions réécrit ({} sessions)", records.size());
+    }
+
+    private FileChannel openIndex() throws IOException {
+        if (index == null || !index.isOpen()) {
+            index = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return index;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+    }
+
+    private record IndexRecord(int zoneId, long expiryMillis) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.floye.safarizone.mixin;
+
+import com.floye.safarizone.util.SpawnBudget;
+import net.minecraft.entity.EntityData;
+import net.minecraft.entity.SpawnReason;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.world.LocalDifficulty;
+import net.minecraft.world.ServerWorldAccess;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(MobEntity.class)
+public abstract class MobEntityMixin implements SpawnBudget.SpawnOrigin {
+	@Unique
+	private SpawnReason safarizone$spawnReason;
+
+	// Appelé avant l'ajout au monde par le générateur naturel, les œufs, les commandes et les spawners
+	@Inject(at = @At("HEAD"), method = "initialize")
+	private void safarizone$recordSpawnReason(ServerWorldAccess world, LocalDifficulty difficulty, SpawnReason spawnReason,
+											  EntityData entityData, CallbackInfoReturnable<EntityData> info) {
+		safarizone$spawnReason = spawnReason;
+	}
+
+	@Override
+	public SpawnReason safarizone$getSpawnReason() {
+		return safarizone$spawnReason;
+	}
+}
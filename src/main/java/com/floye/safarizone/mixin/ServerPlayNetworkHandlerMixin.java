@@ -0,0 +1,48 @@
+package com.floye.safarizone.mixin;
+
+import com.floye.safarizone.util.SafariBoundary;
+import net.minecraft.network.packet.c2s.play.PlayerMoveC2SPacket;
+import net.minecraft.network.packet.c2s.play.VehicleMoveC2SPacket;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.world.World;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerPlayNetworkHandler.class)
+public abstract class ServerPlayNetworkHandlerMixin {
+	@Shadow
+	public ServerPlayerEntity player;
+
+	@Unique
+	private long safarizone$lastBlockPos = Long.MIN_VALUE;
+	@Unique
+	private RegistryKey<World> safarizone$lastWorld;
+
+	// Les paquets reçus hors du thread serveur sont relancés sur celui-ci avant d'atteindre le retour
+	@Inject(at = @At("RETURN"), method = "onPlayerMove")
+	private void safarizone$afterPlayerMove(PlayerMoveC2SPacket packet, CallbackInfo info) {
+		safarizone$checkBlockChange();
+	}
+
+	@Inject(at = @At("RETURN"), method = "onVehicleMove")
+	private void safarizone$afterVehicleMove(VehicleMoveC2SPacket packet, CallbackInfo info) {
+		safarizone$checkBlockChange();
+	}
+
+	@Unique
+	private void safarizone$checkBlockChange() {
+		long blockPos = player.getBlockPos().asLong();
+		RegistryKey<World> world = player.getWorld().getRegistryKey();
+		if (blockPos == safarizone$lastBlockPos && world == safarizone$lastWorld) return;
+
+		safarizone$lastBlockPos = blockPos;
+		safarizone$lastWorld = world;
+		SafariBoundary.onBlockChanged(player);
+	}
+}
@@ -0,0 +1,22 @@
+package com.floye.safarizone.mixin;
+
+import com.floye.safarizone.util.SpawnBudget;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.world.ServerWorld;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(ServerWorld.class)
+public abstract class ServerWorldMixin {
+
+	// Passage obligé des nouvelles entités : générateur naturel et générateurs des mods (Cobblemon) ; la raison
+	// d'apparition retenue par MobEntityMixin écarte œufs, commandes et spawners
+	@Inject(at = @At("HEAD"), method = "spawnEntity", cancellable = true)
+	private void safarizone$checkSpawnBudget(Entity entity, CallbackInfoReturnable<Boolean> info) {
+		if (!SpawnBudget.allowSpawn((ServerWorld) (Object) this, entity)) {
+			info.setReturnValue(false);
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package com.floye.safarizone.session;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Table d'internement des identifiants de dimension ({@code minecraft:overworld}...).
+ * <p>
+ * Chaque identifiant reçoit une instance de chaîne canonique et un index stable, qui permet de le stocker dans un
+ * simple {@code int}. Les identifiants ne sont pas validés : une dimension inconnue est internée comme les autres.
+ */
+public final class DimensionIds {
+    private static final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+    private static volatile String[] byIndex = new String[0];
+
+    private DimensionIds() {
+    }
+
+    /**
+     * @param dimensionId L'identifiant.
+     * @return L'instance internée, ou null pour null.
+     */
+    public static String intern(String dimensionId) {
+        int index = indexOf(dimensionId);
+        return index >= 0 ? byIndex[index] : null;
+    }
+
+    /**
+     * @param dimensionId L'identifiant.
+     * @return L'index interné, ou -1 si l'identifiant est null.
+     */
+    public static int indexOf(String dimensionId) {
+        if (dimensionId == null) return -1;
+
+        Integer index = indexes.get(dimensionId);
+        return index != null ? index : register(dimensionId);
+    }
+
+    /**
+     * @param index Un index retourné par {@link #indexOf}.
+     * @return L'identifiant interné, ou null pour l'index -1.
+     */
+    public static String idAt(int index) {
+        return index >= 0 ? byIndex[index] : null;
+    }
+
+    private static synchronized int register(String dimensionId) {
+        Integer existing = indexes.get(dimensionId);
+        if (existing != null) return existing;
+
+        String[] table = byIndex;
+        String[] grown = Arrays.copyOf(table, table.length + 1);
+        grown[table.length] = dimensionId;
+        // Publiée avant l'index : un lecteur qui trouve l'index trouve aussi la chaîne
+        byIndex = grown;
+        indexes.put(dimensionId, table.length);
+        return table.length;
+    }
+}
@@ -0,0 +1,14 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+
+public interface Messenger {
+    /**
+     * Envoie un message à un joueur, ignoré s'il est hors ligne.
+     *
+     * @param playerId  L'UUID du joueur.
+     * @param message   Le message.
+     * @param actionBar true pour l'afficher au-dessus de la barre d'action plutôt que dans le chat.
+     */
+    void send(UUID playerId, String message, boolean actionBar);
+}
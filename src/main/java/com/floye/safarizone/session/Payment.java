@@ -0,0 +1,60 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Paiement identifié par une clé d'idempotence : il est débité au plus une fois et remboursé au plus une fois.
+ * <p>
+ * Un paiement est ouvert ({@link #isOpen}) entre le début du débit et son règlement : session enregistrée
+ * ({@link Status#SETTLED}), débit refusé ou remboursement effectué.
+ */
+public final class Payment {
+    public final UUID key;
+    public final UUID playerId;
+    public final int zoneId;
+    public final double amount;
+    private final AtomicReference<Status> status;
+
+    public enum Status {
+        PENDING, CHARGING, CHARGED, FAILED, REFUNDING, REFUNDED, SETTLED
+    }
+
+    public Payment(UUID playerId, int zoneId, double amount) {
+        this(UUID.randomUUID(), playerId, zoneId, amount, Status.PENDING);
+    }
+
+    /**
+     * Paiement relu depuis un registre.
+     */
+    public Payment(UUID key, UUID playerId, int zoneId, double amount, Status status) {
+        this.key = key;
+        this.playerId = playerId;
+        this.zoneId = zoneId;
+        this.amount = amount;
+        this.status = new AtomicReference<>(status);
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    /**
+     * @return true si le débit est en cours, le montant débité sans session enregistrée ou le remboursement en cours.
+     */
+    public boolean isOpen() {
+        Status current = status.get();
+        return current == Status.CHARGING || current == Status.CHARGED || current == Status.REFUNDING;
+    }
+
+    /**
+     * @return true si le paiement était dans l'état attendu et passe dans le nouvel état.
+     */
+    public boolean transition(Status expected, Status next) {
+        return status.compareAndSet(expected, next);
+    }
+
+    public void setStatus(Status next) {
+        status.set(next);
+    }
+}
@@ -0,0 +1,17 @@
+package com.floye.safarizone.session;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+public interface Payments {
+    /**
+     * @return Un CompletableFuture contenant true si le montant a été débité (complété sur n'importe quel thread).
+     * @throws RejectedExecutionException si trop de débits sont déjà en cours.
+     */
+    CompletableFuture<Boolean> charge(Payment payment);
+
+    /**
+     * @return true si le remboursement a été lancé par cet appel.
+     */
+    boolean refund(Payment payment);
+}
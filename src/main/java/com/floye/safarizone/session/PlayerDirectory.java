@@ -0,0 +1,18 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+
+/**
+ * Accès aux joueurs connectés, appelé uniquement depuis le thread principal.
+ */
+public interface PlayerDirectory {
+    boolean isOnline(UUID playerId);
+
+    /* Position et dimension actuelles, enregistrées comme point de retour à l'entrée en zone */
+    Position position(UUID playerId);
+
+    /**
+     * @return L'identifiant de la dimension du joueur, interné ({@link DimensionIds}), ou null s'il est hors ligne.
+     */
+    String dimension(UUID playerId);
+}
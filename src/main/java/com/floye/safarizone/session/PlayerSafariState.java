@@ -0,0 +1,37 @@
+package com.floye.safarizone.session;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * État d'une session à un instant donné. Immuable (tous les champs sont finals) : le stockage des sessions n'en
+ * crée que des copies, et la dimension d'origine n'est qu'un identifiant interné, résolu par la couche serveur.
+ */
+public final class PlayerSafariState {
+    public final Position originalPosition;
+    public final String originalDimensionId;
+    public final int zoneId;
+    // Instance de la zone attribuée à l'entrée (0 pour une zone sans copies)
+    public final int instance;
+    // Échéance absolue de la session, décalée à la reconnexion du temps passé hors ligne
+    @SerializedName(value = "expiryTimeMillis", alternate = "remainingTimeMillis")
+    public final long expiryTimeMillis;
+    public final Long logoutTimeMillis;
+    public final boolean fiveMinuteWarningSent;
+    public final boolean oneMinuteWarningSent;
+
+    public PlayerSafariState(Position pos, String dimensionId, int zone, int instance, long time) {
+        this(pos, dimensionId, zone, instance, time, null, false, false);
+    }
+
+    public PlayerSafariState(Position pos, String dimensionId, int zone, int instance, long time, Long logoutTime,
+                             boolean fiveMinuteWarningSent, boolean oneMinuteWarningSent) {
+        this.originalPosition = pos;
+        this.originalDimensionId = DimensionIds.intern(dimensionId);
+        this.zoneId = zone;
+        this.instance = instance;
+        this.expiryTimeMillis = time;
+        this.logoutTimeMillis = logoutTime;
+        this.fiveMinuteWarningSent = fiveMinuteWarningSent;
+        this.oneMinuteWarningSent = oneMinuteWarningSent;
+    }
+}
@@ -0,0 +1,40 @@
+package com.floye.safarizone.session;
+
+/**
+ * Position d'un bloc, indépendante du jeu. La forme empaquetée sur un {@code long} reprend la disposition de
+ * {@code BlockPos#asLong} (x sur 26 bits, z sur 26 bits, y sur 12 bits).
+ */
+public record Position(int x, int y, int z) {
+    public static final Position ORIGIN = new Position(0, 0, 0);
+
+    private static final int BITS_XZ = 26;
+    private static final int BITS_Y = 12;
+    private static final int SHIFT_Z = BITS_Y;
+    private static final int SHIFT_X = BITS_Y + BITS_XZ;
+    private static final long MASK_XZ = (1L << BITS_XZ) - 1;
+    private static final long MASK_Y = (1L << BITS_Y) - 1;
+
+    public long asLong() {
+        return asLong(x, y, z);
+    }
+
+    public static long asLong(int x, int y, int z) {
+        return (x & MASK_XZ) << SHIFT_X | (y & MASK_Y) | (z & MASK_XZ) << SHIFT_Z;
+    }
+
+    public static Position fromLong(long packed) {
+        return new Position(unpackX(packed), unpackY(packed), unpackZ(packed));
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> SHIFT_X);
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << (Long.SIZE - BITS_Y) >> (Long.SIZE - BITS_Y));
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << (Long.SIZE - SHIFT_Z - BITS_XZ) >> (Long.SIZE - BITS_XZ));
+    }
+}
@@ -0,0 +1,22 @@
+package com.floye.safarizone.session;
+
+/**
+ * Horloge et échéancier du moteur de sessions : l'heure système en production, une horloge virtuelle
+ * dans le simulateur.
+ */
+public interface SessionClock {
+    long currentTimeMillis();
+
+    /**
+     * Planifie une tâche après un délai. La tâche s'exécute sur le thread de l'échéancier, pas sur le thread principal.
+     *
+     * @param task        La tâche.
+     * @param delayMillis Le délai en millisecondes.
+     * @return Un handle permettant d'annuler la tâche.
+     */
+    Timer schedule(Runnable task, long delayMillis);
+
+    interface Timer {
+        void cancel();
+    }
+}
@@ -0,0 +1,575 @@
+package com.floye.safarizone.session;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Cycle de vie des sessions (entrée, déconnexion, reconnexion, avertissements, expiration), indépendant du serveur.
+ * <p>
+ * Le moteur ne connaît le jeu qu'au travers de petites interfaces (joueurs, téléportation, messages, économie,
+ * horloge, journal) : la même logique tourne sur le serveur et dans le simulateur headless. Toutes les
+ * transitions s'exécutent sur le thread principal ({@code mainThread}) ; les échéances et l'économie y reviennent
+ * avant de modifier une session. Le paquet ne dépend ni du jeu ni du reste du mod : zones, positions et dimensions
+ * n'y sont que des identifiants et des coordonnées.
+ */
+public class SessionEngine {
+    // Même journal que le mod, sans dépendre de son point d'entrée
+    static final Logger LOGGER = LoggerFactory.getLogger("safari-zone-mod");
+    // Nouvel essai d'une téléportation de sortie échouée : 1 s, doublé à chaque échec, au plus 1 min
+    private static final long EXIT_RETRY_MILLIS = 1000;
+    private static final long MAX_EXIT_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final SessionClock clock;
+    private final Executor mainThread;
+    private final PlayerDirectory players;
+    private final Teleporter teleporter;
+    private final Messenger messenger;
+    private final Payments payments;
+    private final SessionJournal journal;
+    private final SessionListener listener;
+    private final SessionTimers timers;
+    private final SessionWorkQueue work = new SessionWorkQueue();
+
+    private volatile ZoneCatalog zoneTable = ZoneCatalog.EMPTY;
+    private volatile SessionStore store = new SessionStore();
+    private final Set<UUID> pendingEntries = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> exitingPlayers = ConcurrentHashMap.newKeySet();
+    // Nouvel essai de sortie planifié, par joueur ; thread principal
+    private final Map<UUID, SessionClock.Timer> exitRetries = new HashMap<>();
+    // Entrées payées en cours de préparation, par zone et instance (SessionStore.instanceKey) ; thread principal
+    private final Long2IntOpenHashMap placing = new Long2IntOpenHashMap();
+
+    public SessionEngine(SessionClock clock, Executor mainThread, PlayerDirectory players, Teleporter teleporter,
+                         Messenger messenger, Payments payments, SessionJournal journal, SessionListener listener) {
+        this.clock = clock;
+        this.mainThread = mainThread;
+        this.players = players;
+        this.teleporter = teleporter;
+        this.messenger = messenger;
+        this.payments = payments;
+        this.journal = journal;
+        this.listener = listener;
+        this.timers = new SessionTimers(clock, this::onWarning, this::onExpired);
+    }
+
+    /* Gestion des états */
+    public void load(SessionStore loaded) {
+        store = loaded;
+    }
+
+    /**
+     * Ajoute une session lue à la connexion de son joueur (stockage chargé à la demande), avec les mêmes règles
+     * de validité qu'au démarrage. Thread principal.
+     *
+     * @param playerId L'UUID du joueur.
+     * @param state    L'état enregistré.
+     * @return true si la session est en mémoire après l'appel.
+     */
+    public boolean restore(UUID playerId, PlayerSafariState state) {
+        if (store.contains(playerId)) return true;
+
+        boolean valid = state.originalPosition != null &&
+                state.originalDimensionId != null &&
+                state.expiryTimeMillis > 0 &&
+                zoneTable.contains(state.zoneId);
+        if (!valid) {
+            journal.record(SessionEvent.EXPIRE, playerId, state);
+            LOGGER.debug("Nettoyage état invalide: {}", playerId);
+            return false;
+        }
+
+        store.put(playerId, state);
+        listener.onSessionLoaded(playerId, state.zoneId);
+        return true;
+    }
+
+    public int cleanInvalidStates() {
+        int invalidCount = 0;
+
+        SessionStore.Snapshot sessions = store.snapshot();
+        for (int i = 0; i < sessions.size(); i++) {
+            boolean valid = sessions.hasOrigin(i) &&
+                    sessions.dimensionId(i) != null &&
+                    sessions.expiryTimeMillis(i) > 0 &&
+                    zoneTable.contains(sessions.zoneId(i));
+            if (!valid) {
+                UUID playerId = sessions.playerId(i);
+                removeSession(playerId, store.token(playerId));
+                invalidCount++;
+                LOGGER.debug("Nettoyage état invalide: {}", playerId);
+            }
+        }
+        return invalidCount;
+    }
+
+    private void removeSession(UUID playerId, long token) {
+        timers.cancel(playerId);
+        listener.onSessionSuspended(playerId);
+        int zoneId = store.zoneId(playerId);
+        PlayerSafariState last = store.get(playerId);
+        if (store.remove(playerId, token)) {
+            journal.record(SessionEvent.EXPIRE, playerId, last);
+            listener.onSessionEnded(playerId, zoneId);
+        }
+    }
+
+    /* Échéances de session */
+    private void onWarning(UUID playerId, int minutes) {
+        mainThread.execute(() -> {
+            if (!store.contains(playerId) || !players.isOnline(playerId)) return;
+
+            messenger.send(playerId, "Attention! Il vous reste " + minutes + (minutes > 1 ? " minutes." : " minute."), true);
+            store.markWarningSent(playerId, minutes);
+            journal.record(SessionEvent.WARNING, playerId, store.get(playerId));
+        });
+    }
+
+    private void onExpired(UUID playerId) {
+        mainThread.execute(() -> {
+            long token = store.token(playerId);
+            // Un joueur hors ligne a sa session en pause : elle sera replanifiée à la reconnexion
+            if (token != 0 && players.isOnline(playerId)) {
+                teleportOut(playerId, token);
+            }
+        });
+    }
+
+    /* Entrée */
+
+    /**
+     * Démarre l'entrée d'un joueur admis : une place est réservée dans la zone et doit être libérée en cas d'échec
+     * ({@link SessionListener#onEntryAborted}).
+     *
+     * @param playerId L'UUID du joueur.
+     * @param zoneId   L'identifiant de la zone.
+     */
+    public void enter(UUID playerId, int zoneId) {
+        SessionZone zone = zoneTable.get(zoneId);
+        // Une seule entrée en cours par joueur : une commande relancée ne peut pas débiter deux fois
+        if (zone == null || store.contains(playerId) || !pendingEntries.add(playerId)) {
+            listener.onEntryAborted(playerId, zoneId);
+            return;
+        }
+
+        SessionJfr.ZoneEntry entry = new SessionJfr.ZoneEntry();
+        entry.begin();
+        Payment payment = new Payment(playerId, zoneId, zone.cost());
+        CompletableFuture<Boolean> charge;
+        try {
+            charge = payments.charge(payment);
+        } catch (RejectedExecutionException e) {
+            abortEntry(playerId, zoneId);
+            commitEntryEvent(entry, playerId, zoneId, "aborted");
+            messenger.send(playerId, "Serveur occupé, réessayez dans quelques instants", false);
+            return;
+        }
+
+        long chargeStart = System.nanoTime();
+        charge.whenComplete((charged, error) -> mainThread.execute(() -> {
+            entry.economyWait = System.nanoTime() - chargeStart;
+            if (error != null || !charged) {
+                if (error != null) {
+                    LOGGER.error("Erreur paiement SafariZone", error);
+                }
+                messenger.send(playerId, "Erreur paiement", false);
+                abortEntry(playerId, zoneId);
+                commitEntryEvent(entry, playerId, zoneId, "aborted");
+                return;
+            }
+
+            listener.onCharged(playerId, zoneId, payment.amount);
+            int instance = leastLoadedInstance(zone);
+            placing.addTo(SessionStore.instanceKey(zoneId, instance), 1);
+            // La téléportation n'a lieu qu'une fois la destination chargée
+            teleporter.prepareZone(zoneId, instance)
+                    .thenAccept(ready -> finishEntry(playerId, zoneId, zone, instance, payment, ready, entry));
+        }));
+    }
+
+    /* Les entrées en cours de préparation comptent : une rafale d'entrées se répartit sur toutes les instances */
+    private int leastLoadedInstance(SessionZone zone) {
+        int best = 0;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int instance = 0; instance < zone.instanceCount(); instance++) {
+            int load = store.countInInstance(zone.id(), instance) +
+                    placing.get(SessionStore.instanceKey(zone.id(), instance));
+            if (load < bestLoad) {
+                best = instance;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /* Thread principal : le paiement est débité et la destination prête, la session est créée ou le paiement remboursé */
+    private void finishEntry(UUID playerId, int zoneId, SessionZone zone, int instance, Payment payment, boolean ready,
+                             SessionJfr.ZoneEntry entry) {
+        placing.addTo(SessionStore.instanceKey(zoneId, instance), -1);
+        boolean entered = false;
+        try {
+            if (!ready) {
+                messenger.send(playerId, "Dimension introuvable, paiement remboursé", false);
+            } else {
+                entered = commitEntry(playerId, zoneId, zone, instance, entry);
+            }
+            if (!entered) {
+                refund(payment, playerId, zoneId);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Erreur entrée SafariZone", e);
+            refund(payment, playerId, zoneId);
+        } finally {
+            if (entered) {
+                pendingEntries.remove(playerId);
+            } else {
+                abortEntry(playerId, zoneId);
+            }
+            entry.instance = instance;
+            commitEntryEvent(entry, playerId, zoneId, entered ? "entered" : "refunded");
+        }
+    }
+
+    private boolean commitEntry(UUID playerId, int zoneId, SessionZone zone, int instance, SessionJfr.ZoneEntry entry) {
+        if (!players.isOnline(playerId) || store.contains(playerId)) {
+            return false;
+        }
+
+        PlayerSafariState state = new PlayerSafariState(
+                players.position(playerId),
+                players.dimension(playerId),
+                zoneId,
+                instance,
+                clock.currentTimeMillis() + TimeUnit.MINUTES.toMillis(zone.durationMinutes())
+        );
+
+        long teleportStart = System.nanoTime();
+        boolean teleported = teleporter.teleportToZone(playerId, zoneId, instance);
+        entry.teleport = System.nanoTime() - teleportStart;
+        if (!teleported) {
+            messenger.send(playerId, "Erreur téléportation, paiement remboursé", false);
+            return false;
+        }
+
+        store.put(playerId, state);
+        timers.schedule(playerId, state);
+        journal.record(SessionEvent.ENTER, playerId, state);
+        listener.onSessionStarted(playerId, zoneId, instance);
+        return true;
+    }
+
+    /* Les champs texte ne sont remplis que pour un événement enregistré : rien n'est alloué si JFR ne l'écoute pas */
+    private static void commitEntryEvent(SessionJfr.ZoneEntry entry, UUID playerId, int zoneId, String outcome) {
+        entry.end();
+        if (entry.shouldCommit()) {
+            entry.player = playerId.toString();
+            entry.zone = zoneId;
+            entry.outcome = outcome;
+            entry.commit();
+        }
+    }
+
+    private void refund(Payment payment, UUID playerId, int zoneId) {
+        if (payments.refund(payment)) {
+            listener.onRefund(playerId, zoneId, payment.amount);
+        }
+    }
+
+    private void abortEntry(UUID playerId, int zoneId) {
+        pendingEntries.remove(playerId);
+        listener.onEntryAborted(playerId, zoneId);
+    }
+
+    /* Déconnexion / reconnexion */
+    public void logout(UUID playerId) {
+        if (store.contains(playerId)) {
+            timers.cancel(playerId);
+            listener.onSessionSuspended(playerId);
+            store.pause(playerId, clock.currentTimeMillis());
+            journal.record(SessionEvent.LOGOUT, playerId, store.get(playerId));
+        }
+    }
+
+    public void reconnect(UUID playerId) {
+        PlayerSafariState state = store.get(playerId);
+        if (state == null) return;
+
+        if (state.originalPosition == null || state.originalDimensionId == null) {
+            removeSession(playerId, store.token(playerId));
+            return;
+        }
+
+        mainThread.execute(() -> {
+            try {
+                long token = store.token(playerId);
+                if (token == 0) return;
+
+                // La session est en pause pendant la déconnexion : l'échéance est décalée d'autant
+                if (store.resume(playerId, clock.currentTimeMillis())) {
+                    journal.record(SessionEvent.RECONNECT, playerId, store.get(playerId));
+                }
+
+                // Sortie encore en cours : elle continue, la session ne reprend pas
+                if (exitingPlayers.contains(playerId)) {
+                    resumeExit(playerId, token);
+                    return;
+                }
+
+                // Expirée, zone ou instance supprimée, ou déplacée dans une autre dimension pendant l'absence : retour à l'origine
+                long remaining = store.expiry(playerId) - clock.currentTimeMillis();
+                int zoneId = store.zoneId(playerId);
+                int instance = store.instance(playerId);
+                SessionZone zone = zoneTable.get(zoneId);
+                String dimension = zone != null ? zone.instanceDimension(instance) : null;
+                if (remaining <= 0 || dimension == null || !dimension.equals(players.dimension(playerId))) {
+                    teleportOut(playerId, token);
+                } else {
+                    timers.schedule(playerId, store.get(playerId));
+                    listener.onSessionResumed(playerId, zoneId, instance);
+                    messenger.send(playerId, "Temps restant: " + TimeUnit.MILLISECONDS.toSeconds(remaining) + "s", true);
+                }
+            } catch (Exception e) {
+                LOGGER.error("Erreur reconnexion joueur", e);
+            }
+        });
+    }
+
+    /* Sortie */
+
+    /**
+     * Termine immédiatement la session d'un joueur et le renvoie à sa position d'origine.
+     *
+     * @param playerId L'UUID du joueur.
+     */
+    public void endSession(UUID playerId) {
+        long token = store.token(playerId);
+        if (token != 0) {
+            teleportOut(playerId, token);
+        }
+    }
+
+    /* La sortie est suspendue tout de suite ; la préparation et la téléportation passent par la file du thread principal */
+    private void teleportOut(UUID playerId, long token) {
+        // Une sortie est déjà en attente (expiration et sortie des limites simultanées)
+        if (!exitingPlayers.add(playerId)) return;
+
+        try {
+            timers.cancel(playerId);
+            listener.onSessionSuspended(playerId);
+            PlayerSafariState state = store.get(playerId);
+            long due = Math.min(state.expiryTimeMillis, clock.currentTimeMillis());
+            work.submit(playerId, players.isOnline(playerId), due, () -> prepareExit(playerId, token, state, due));
+        } catch (Exception e) {
+            exitingPlayers.remove(playerId);
+            LOGGER.error("Échec téléportation", e);
+            messenger.send(playerId, "Erreur téléportation", false);
+        }
+    }
+
+    private void prepareExit(UUID playerId, long token, PlayerSafariState state, long due) {
+        // Déconnecté ou session déjà terminée pendant l'attente : la session en pause sera traitée à la reconnexion
+        if (!players.isOnline(playerId) || store.token(playerId) != token) {
+            exitingPlayers.remove(playerId);
+            return;
+        }
+
+        CompletableFuture<Void> prepared;
+        try {
+            prepared = teleporter.prepareOrigin(state);
+        } catch (RuntimeException e) {
+            prepared = CompletableFuture.failedFuture(e);
+        }
+        // Préchargement impossible : la sortie n'est pas abandonnée (timers déjà annulés), la téléportation charge
+        // elle-même la destination
+        prepared.whenComplete((ignored, error) -> {
+            if (error != null) {
+                LOGGER.warn("Préchargement de la sortie de {} impossible, téléportation sans préchargement", playerId, error);
+            }
+            work.submit(playerId, players.isOnline(playerId), due, () -> completeExit(playerId, token, state, due, 0));
+        });
+    }
+
+    private void completeExit(UUID playerId, long token, PlayerSafariState state, long due, int failures) {
+        // Déconnecté pendant le préchargement : la session reste en pause et sera traitée à la reconnexion
+        if (!players.isOnline(playerId) || store.token(playerId) != token) {
+            exitingPlayers.remove(playerId);
+            return;
+        }
+
+        SessionJfr.SessionExit exit = new SessionJfr.SessionExit();
+        exit.begin();
+        try {
+            exit.success = teleporter.teleportToOrigin(playerId, state);
+        } catch (Exception e) {
+            LOGGER.error("Échec téléportation", e);
+        }
+        exit.end();
+        if (exit.shouldCommit()) {
+            exit.player = playerId.toString();
+            exit.zone = state.zoneId;
+            exit.lateness = Math.max(0, clock.currentTimeMillis() - state.expiryTimeMillis);
+            exit.commit();
+        }
+
+        if (exit.success) {
+            exitingPlayers.remove(playerId);
+            removeSession(playerId, token);
+        } else {
+            retryExit(playerId, token, state, due, failures + 1);
+        }
+    }
+
+    /* La session reste marquée en sortie : ni l'expiration ni une autre sortie ne relancent la téléportation entre-temps */
+    private void retryExit(UUID playerId, long token, PlayerSafariState state, long due, int failures) {
+        long delay = Math.min(MAX_EXIT_RETRY_MILLIS, EXIT_RETRY_MILLIS << Math.min(failures - 1, 16));
+        messenger.send(playerId, "Erreur téléportation, nouvel essai dans " + TimeUnit.MILLISECONDS.toSeconds(delay) + "s", false);
+        try {
+            exitRetries.put(playerId, clock.schedule(() -> mainThread.execute(() -> {
+                // Annulé entre-temps par une reconnexion, qui a relancé la sortie
+                if (exitRetries.remove(playerId) == null) return;
+                work.submit(playerId, players.isOnline(playerId), due, () -> completeExit(playerId, token, state, due, failures));
+            }), delay));
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : la session expirée est reprise au prochain démarrage
+            exitingPlayers.remove(playerId);
+        }
+    }
+
+    /* Reconnexion pendant l'attente d'un nouvel essai : il est annulé et la sortie repart tout de suite. Une sortie
+       encore dans la file n'a pas besoin d'être relancée, elle s'exécute avec le joueur en ligne */
+    private void resumeExit(UUID playerId, long token) {
+        SessionClock.Timer retry = exitRetries.remove(playerId);
+        if (retry == null) return;
+
+        retry.cancel();
+        exitingPlayers.remove(playerId);
+        teleportOut(playerId, token);
+    }
+
+    /**
+     * Exécute les sorties en attente dans la limite du budget du tick (thread principal).
+     *
+     * @param budgetNanos Le temps accordé pour ce tick.
+     * @return Le nombre de travaux exécutés.
+     */
+    public int runQueuedWork(long budgetNanos) {
+        return work.run(budgetNanos);
+    }
+
+    public int queuedWork() {
+        return work.size();
+    }
+
+    /**
+     * Abandonne tout l'état en mémoire (arrêt du serveur, après la sauvegarde finale) : sessions, entrées et
+     * sorties en cours, échéances et travaux en attente. Les sessions enregistrées sont relues au prochain
+     * démarrage ; la table des zones est conservée.
+     */
+    public void reset() {
+        timers.cancelAll();
+        exitRetries.values().forEach(SessionClock.Timer::cancel);
+        exitRetries.clear();
+        work.clear();
+        pendingEntries.clear();
+        exitingPlayers.clear();
+        placing.clear();
+        store = new SessionStore();
+    }
+
+    /* Zones */
+    public void setZones(ZoneCatalog zones) {
+        zoneTable = zones;
+    }
+
+    /**
+     * Réconcilie les sessions en cours après la publication d'une nouvelle table (thread principal) :
+     * les sessions des zones modifiées reprennent avec les nouvelles limites de leur instance, celles des zones ou
+     * instances supprimées ou déplacées dans une autre dimension sont terminées. Les zones inchangées ne sont pas
+     * touchées ; les joueurs hors ligne sont traités à leur reconnexion.
+     *
+     * @param previous L'ancienne table.
+     * @return Un résumé de la réconciliation.
+     */
+    public String reconcile(ZoneCatalog previous) {
+        ZoneCatalog zones = zoneTable;
+        Int2ObjectMap<SessionZone> changed = new Int2ObjectOpenHashMap<>();
+        IntSet removed = new IntOpenHashSet();
+        for (SessionZone old : previous.zones()) {
+            SessionZone updated = zones.get(old.id());
+            if (updated != null && updated.isEquivalentTo(old)) continue;
+
+            if (updated == null) {
+                removed.add(old.id());
+            } else {
+                changed.put(old.id(), updated);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return zones.size() + " zones chargées, aucune session concernée";
+        }
+
+        // Rechargement rare : un seul passage sur la copie compacte plutôt qu'un index par zone en mémoire
+        int migrated = 0;
+        int ended = 0;
+        SessionStore.Snapshot sessions = store.snapshot();
+        for (int i = 0; i < sessions.size(); i++) {
+            int zoneId = sessions.zoneId(i);
+            SessionZone updated = changed.get(zoneId);
+            if (updated == null && !removed.contains(zoneId)) continue;
+
+            UUID playerId = sessions.playerId(i);
+            if (!players.isOnline(playerId)) continue;
+
+            int instance = sessions.instance(i);
+            String oldDimension = previous.get(zoneId).instanceDimension(instance);
+            String dimension = updated != null ? updated.instanceDimension(instance) : null;
+            if (dimension == null || oldDimension == null || !dimension.equals(oldDimension)) {
+                messenger.send(playerId, "La zone " + zoneId + " a été retirée ou déplacée, votre session est terminée.", false);
+                endSession(playerId);
+                ended++;
+            } else {
+                listener.onSessionResumed(playerId, zoneId, instance);
+                migrated++;
+            }
+        }
+        return zones.size() + " zones chargées, " + migrated + " sessions migrées, " + ended + " sessions terminées";
+    }
+
+    public ZoneCatalog zones() {
+        return zoneTable;
+    }
+
+    public boolean hasSession(UUID playerId) {
+        return store.contains(playerId);
+    }
+
+    public boolean isEntering(UUID playerId) {
+        return pendingEntries.contains(playerId);
+    }
+
+    public int activeSessions(int zoneId) {
+        return store.countInZone(zoneId);
+    }
+
+    public int activeSessions(int zoneId, int instance) {
+        return store.countInInstance(zoneId, instance);
+    }
+
+    public int scheduledTimers() {
+        return timers.scheduledCount();
+    }
+
+    public SessionView states() {
+        return store;
+    }
+}
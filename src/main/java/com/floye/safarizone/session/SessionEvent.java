@@ -0,0 +1,8 @@
+package com.floye.safarizone.session;
+
+/**
+ * Transitions de session journalisées ; EXPIRE retire la session, les autres la réécrivent entièrement.
+ */
+public enum SessionEvent {
+    ENTER, LOGOUT, RECONNECT, WARNING, EXPIRE
+}
@@ -0,0 +1,59 @@
+package com.floye.safarizone.session;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Événements JDK Flight Recorder du moteur de sessions. Les événements du serveur (file des sorties, persistance,
+ * configuration) et le profil qui les active sont dans {@code util.SafariJfr}.
+ */
+public final class SessionJfr {
+    private SessionJfr() {
+    }
+
+    /* Durée : de la demande d'entrée admise à la session créée ou au remboursement */
+    @Name("safarizone.ZoneEntry")
+    @Label("Entrée en zone")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class ZoneEntry extends Event {
+        @Label("Joueur")
+        public String player;
+        @Label("Zone")
+        public int zone;
+        @Label("Instance")
+        public int instance;
+        @Label("Attente de l'économie")
+        @Timespan(Timespan.NANOSECONDS)
+        public long economyWait;
+        @Label("Téléportation")
+        @Timespan(Timespan.NANOSECONDS)
+        public long teleport;
+        @Label("Résultat")
+        @Description("entered, refunded ou aborted")
+        public String outcome;
+    }
+
+    /* Durée : la téléportation de sortie sur le thread principal */
+    @Name("safarizone.SessionExit")
+    @Label("Sortie de zone")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class SessionExit extends Event {
+        @Label("Joueur")
+        public String player;
+        @Label("Zone")
+        public int zone;
+        @Label("Retard")
+        @Description("Temps écoulé depuis l'échéance de la session")
+        @Timespan(Timespan.MILLISECONDS)
+        public long lateness;
+        @Label("Réussie")
+        public boolean success;
+    }
+}
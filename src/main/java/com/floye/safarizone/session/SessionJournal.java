@@ -0,0 +1,12 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+
+/**
+ * Transitions de session à persister. Pour {@link SessionEvent#EXPIRE}, l'état est le dernier connu de la session
+ * retirée (ou null) : la persistance l'ignore, l'historique des événements y lit la zone.
+ */
+@FunctionalInterface
+public interface SessionJournal {
+    void record(SessionEvent event, UUID playerId, PlayerSafariState state);
+}
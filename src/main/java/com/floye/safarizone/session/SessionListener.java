@@ -0,0 +1,38 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+
+/**
+ * Transitions de session observées par la couche serveur (limites de zone, admission, métriques).
+ * Appelé sur le thread principal.
+ */
+public interface SessionListener {
+    default void onSessionStarted(UUID playerId, int zoneId, int instance) {
+    }
+
+    /* Reconnexion ou zone rechargée : la session reprend avec les limites de l'instance donnée (table publiée) */
+    default void onSessionResumed(UUID playerId, int zoneId, int instance) {
+    }
+
+    /* Session enregistrée chargée à la connexion de son joueur, reprise ensuite par onSessionResumed */
+    default void onSessionLoaded(UUID playerId, int zoneId) {
+    }
+
+    /* Déconnexion ou sortie en cours : la session n'est plus surveillée */
+    default void onSessionSuspended(UUID playerId) {
+    }
+
+    default void onSessionEnded(UUID playerId, int zoneId) {
+    }
+
+    /* Place d'admission réservée mais entrée abandonnée */
+    default void onEntryAborted(UUID playerId, int zoneId) {
+    }
+
+    /* Paiement de l'entrée débité, avant la préparation de la zone */
+    default void onCharged(UUID playerId, int zoneId, double amount) {
+    }
+
+    default void onRefund(UUID playerId, int zoneId, double amount) {
+    }
+}
@@ -0,0 +1,527 @@
+package com.floye.safarizone.session;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Stockage compact des sessions : table à adressage ouvert indexée par les deux {@code long} de l'UUID, champs
+ * en tableaux de primitives (position empaquetée, index de dimension interné, échéances) et indicateurs sur un
+ * octet par session. Aucun objet n'est alloué par session ; les {@link PlayerSafariState} ne sont créés qu'à la
+ * demande, comme copies.
+ * <p>
+ * Un seul thread modifie la table (thread principal). Les lectures sont optimistes ({@link StampedLock}) : elles
+ * ne prennent aucun verrou ; une lecture recouverte par une écriture est refaite, et ne passe sous verrou de
+ * lecture qu'après plusieurs échecs. Une copie ({@link #snapshot()}) suit la même règle : le thread principal
+ * n'attend sa fin que si elle a été recouverte plusieurs fois de suite, et une copie est toujours cohérente, à
+ * une version précise.
+ */
+public final class SessionStore implements SessionView {
+    public static final long NO_LOGOUT = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final float LOAD_FACTOR = 0.6f;
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private static final byte USED = 1;
+    private static final byte HAS_ORIGIN = 1 << 1;
+    private static final byte FIVE_MINUTE_WARNING = 1 << 2;
+    private static final byte ONE_MINUTE_WARNING = 1 << 3;
+
+    private long[] keyHigh;
+    private long[] keyLow;
+    private long[] origin;
+    private int[] dimension;
+    private int[] zoneId;
+    private int[] instance;
+    private long[] expiry;
+    private long[] logout;
+    // Identifiant unique de la session occupant l'emplacement : distingue une session de celle qui la remplace
+    private long[] token;
+    private byte[] flags;
+    private int mask;
+    private int size;
+    private final Int2IntOpenHashMap zoneCounts = new Int2IntOpenHashMap();
+    // Clé : zone et instance (instanceKey)
+    private final Long2IntOpenHashMap instanceCounts = new Long2IntOpenHashMap();
+    private long nextToken = 1;
+    // Incrémentée à chaque modification
+    private long version;
+    private final StampedLock lock = new StampedLock();
+
+    public SessionStore() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keyHigh = new long[capacity];
+        keyLow = new long[capacity];
+        origin = new long[capacity];
+        dimension = new int[capacity];
+        zoneId = new int[capacity];
+        instance = new int[capacity];
+        expiry = new long[capacity];
+        logout = new long[capacity];
+        token = new long[capacity];
+        flags = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    /* Recherche */
+    private int slot(long high, long low) {
+        int slot = (int) HashCommon.mix(high ^ low) & mask;
+        while ((flags[slot] & USED) != 0) {
+            if (keyHigh[slot] == high && keyLow[slot] == low) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(UUID playerId) {
+        return slot(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+    }
+
+    /* Lecture optimiste : une lecture concurrente d'une écriture peut voir une table incohérente (et même échouer),
+       son résultat n'est alors jamais utilisé */
+    private <T> T read(Supplier<T> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) break;
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) throw e;
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private long readLong(LongSupplier reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) break;
+            try {
+                long result = reader.getAsLong();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) throw e;
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return reader.getAsLong();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) readLong(() -> size);
+    }
+
+    @Override
+    public boolean contains(UUID playerId) {
+        return readLong(() -> slot(playerId)) >= 0;
+    }
+
+    @Override
+    public PlayerSafariState get(UUID playerId) {
+        return read(() -> {
+            int slot = slot(playerId);
+            return slot >= 0 ? view(slot) : null;
+        });
+    }
+
+    @Override
+    public int countInZone(int zone) {
+        return (int) readLong(() -> zoneCounts.get(zone));
+    }
+
+    @Override
+    public int countInInstance(int zone, int zoneInstance) {
+        return (int) readLong(() -> instanceCounts.get(instanceKey(zone, zoneInstance)));
+    }
+
+    static long instanceKey(int zone, int zoneInstance) {
+        return (long) zone << 32 | (zoneInstance & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @return L'identifiant de la session du joueur, ou 0 s'il n'en a pas.
+     */
+    long token(UUID playerId) {
+        return readLong(() -> {
+            int slot = slot(playerId);
+            return slot >= 0 ? token[slot] : 0;
+        });
+    }
+
+    int zoneId(UUID playerId) {
+        return (int) readLong(() -> {
+            int slot = slot(playerId);
+            return slot >= 0 ? zoneId[slot] : -1;
+        });
+    }
+
+    int instance(UUID playerId) {
+        return (int) readLong(() -> {
+            int slot = slot(playerId);
+            return slot >= 0 ? instance[slot] : -1;
+        });
+    }
+
+    private PlayerSafariState view(int slot) {
+        byte slotFlags = flags[slot];
+        return new PlayerSafariState(
+                (slotFlags & HAS_ORIGIN) != 0 ? Position.fromLong(origin[slot]) : null,
+                DimensionIds.idAt(dimension[slot]),
+                zoneId[slot],
+                instance[slot],
+                expiry[slot],
+                logout[slot] != NO_LOGOUT ? logout[slot] : null,
+                (slotFlags & FIVE_MINUTE_WARNING) != 0,
+                (slotFlags & ONE_MINUTE_WARNING) != 0
+        );
+    }
+
+    /* Écriture (thread principal) */
+
+    /**
+     * Ajoute ou remplace la session d'un joueur.
+     *
+     * @return L'identifiant de la nouvelle session.
+     */
+    public long put(UUID playerId, PlayerSafariState state) {
+        return put(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(),
+                state.originalPosition != null, state.originalPosition != null ? state.originalPosition.asLong() : 0,
+                state.originalDimensionId, state.zoneId, state.instance, state.expiryTimeMillis,
+                state.logoutTimeMillis != null ? state.logoutTimeMillis : NO_LOGOUT,
+                state.fiveMinuteWarningSent, state.oneMinuteWarningSent);
+    }
+
+    /**
+     * Ajoute ou remplace une session à partir de valeurs primitives (chargement sans objet intermédiaire).
+     *
+     * @param packedOrigin La position d'origine empaquetée ({@link Position#asLong()}), ignorée sans origine.
+     * @param logoutMillis L'heure de déconnexion, ou {@link #NO_LOGOUT}.
+     * @return L'identifiant de la nouvelle session.
+     */
+    public long put(long high, long low, boolean hasOrigin, long packedOrigin, String dimensionId, int zone, int zoneInstance,
+                    long expiryMillis, long logoutMillis, boolean fiveMinuteWarning, boolean oneMinuteWarning) {
+        byte slotFlags = USED;
+        if (hasOrigin) slotFlags |= HAS_ORIGIN;
+        if (fiveMinuteWarning) slotFlags |= FIVE_MINUTE_WARNING;
+        if (oneMinuteWarning) slotFlags |= ONE_MINUTE_WARNING;
+        // Internée hors verrou : l'enregistrement d'une nouvelle dimension peut prendre son propre verrou
+        int dimensionIndex = DimensionIds.indexOf(dimensionId);
+
+        long stamp = lock.writeLock();
+        try {
+            return putLocked(high, low, packedOrigin, dimensionIndex, zone, zoneInstance, expiryMillis, logoutMillis, slotFlags);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private long putLocked(long high, long low, long packedOrigin, int dimensionIndex, int zone, int zoneInstance,
+                           long expiryMillis, long logoutMillis, byte slotFlags) {
+        version++;
+        if (size + 1 > (mask + 1) * LOAD_FACTOR) {
+            rehash((mask + 1) * 2);
+        }
+
+        int slot = (int) HashCommon.mix(high ^ low) & mask;
+        while ((flags[slot] & USED) != 0) {
+            if (keyHigh[slot] == high && keyLow[slot] == low) break;
+            slot = (slot + 1) & mask;
+        }
+        if ((flags[slot] & USED) == 0) {
+            size++;
+        } else {
+            zoneCounts.addTo(zoneId[slot], -1);
+            instanceCounts.addTo(instanceKey(zoneId[slot], instance[slot]), -1);
+        }
+        zoneCounts.addTo(zone, 1);
+        instanceCounts.addTo(instanceKey(zone, zoneInstance), 1);
+
+        keyHigh[slot] = high;
+        keyLow[slot] = low;
+        origin[slot] = packedOrigin;
+        dimension[slot] = dimensionIndex;
+        zoneId[slot] = zone;
+        instance[slot] = zoneInstance;
+        expiry[slot] = expiryMillis;
+        logout[slot] = logoutMillis;
+        flags[slot] = slotFlags;
+        return token[slot] = nextToken++;
+    }
+
+    /**
+     * Retire la session d'un joueur si elle n'a pas été remplacée entre-temps.
+     *
+     * @param expectedToken L'identifiant de la session à retirer, 0 pour retirer sans condition.
+     * @return true si une session a été retirée.
+     */
+    public boolean remove(UUID playerId, long expectedToken) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(playerId);
+            if (slot < 0 || (expectedToken != 0 && token[slot] != expectedToken)) return false;
+
+            version++;
+            zoneCounts.addTo(zoneId[slot], -1);
+            instanceCounts.addTo(instanceKey(zoneId[slot], instance[slot]), -1);
+            deleteSlot(slot);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /* Déconnexion : l'heure est conservée pour décaler l'échéance à la reconnexion */
+    void pause(UUID playerId, long nowMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(playerId);
+            if (slot >= 0) {
+                version++;
+                logout[slot] = nowMillis;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Reprend une session en pause en décalant son échéance du temps passé hors ligne.
+     *
+     * @return true si la session était en pause.
+     */
+    boolean resume(UUID playerId, long nowMillis) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(playerId);
+            if (slot < 0 || logout[slot] == NO_LOGOUT) return false;
+
+            version++;
+            expiry[slot] += nowMillis - logout[slot];
+            logout[slot] = NO_LOGOUT;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    long expiry(UUID playerId) {
+        return readLong(() -> {
+            int slot = slot(playerId);
+            return slot >= 0 ? expiry[slot] : 0;
+        });
+    }
+
+    void markWarningSent(UUID playerId, int minutes) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slot(playerId);
+            if (slot >= 0) {
+                version++;
+                flags[slot] |= warningFlag(minutes);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private static byte warningFlag(int minutes) {
+        return minutes == 5 ? FIVE_MINUTE_WARNING : ONE_MINUTE_WARNING;
+    }
+
+    /* Suppression par décalage arrière : aucune pierre tombale, les recherches restent courtes */
+    private void deleteSlot(int slot) {
+        int current = slot;
+        while (true) {
+            int next = (current + 1) & mask;
+            while (true) {
+                if ((flags[next] & USED) == 0) {
+                    flags[current] = 0;
+                    return;
+                }
+                int home = (int) HashCommon.mix(keyHigh[next] ^ keyLow[next]) & mask;
+                // L'entrée suivante peut combler le trou si son emplacement idéal n'est pas entre le trou et elle
+                if (current <= next ? (home <= current || home > next) : (home <= current && home > next)) break;
+                next = (next + 1) & mask;
+            }
+            move(next, current);
+            current = next;
+        }
+    }
+
+    private void move(int from, int to) {
+        keyHigh[to] = keyHigh[from];
+        keyLow[to] = keyLow[from];
+        origin[to] = origin[from];
+        dimension[to] = dimension[from];
+        zoneId[to] = zoneId[from];
+        instance[to] = instance[from];
+        expiry[to] = expiry[from];
+        logout[to] = logout[from];
+        token[to] = token[from];
+        flags[to] = flags[from];
+    }
+
+    private void rehash(int capacity) {
+        long[] oldHigh = keyHigh, oldLow = keyLow, oldOrigin = origin, oldExpiry = expiry, oldLogout = logout, oldToken = token;
+        int[] oldDimension = dimension, oldZone = zoneId, oldInstance = instance;
+        byte[] oldFlags = flags;
+
+        allocate(capacity);
+        for (int i = 0; i < oldFlags.length; i++) {
+            if ((oldFlags[i] & USED) == 0) continue;
+
+            int slot = (int) HashCommon.mix(oldHigh[i] ^ oldLow[i]) & mask;
+            while ((flags[slot] & USED) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keyHigh[slot] = oldHigh[i];
+            keyLow[slot] = oldLow[i];
+            origin[slot] = oldOrigin[i];
+            dimension[slot] = oldDimension[i];
+            zoneId[slot] = oldZone[i];
+            instance[slot] = oldInstance[i];
+            expiry[slot] = oldExpiry[i];
+            logout[slot] = oldLogout[i];
+            token[slot] = oldToken[i];
+            flags[slot] = oldFlags[i];
+        }
+    }
+
+    /* Copie en O(n) : optimiste d'abord, sous verrou de lecture seulement si des écritures la recouvrent sans cesse
+       (grande table, écritures continues), pour qu'elle aboutisse toujours, arrêt du serveur compris */
+    @Override
+    public Snapshot snapshot() {
+        return read(this::copy);
+    }
+
+    private Snapshot copy() {
+        Snapshot snapshot = new Snapshot(size, version);
+        int index = 0;
+        for (int slot = 0; slot < flags.length; slot++) {
+            if ((flags[slot] & USED) == 0) continue;
+
+            snapshot.keyHigh[index] = keyHigh[slot];
+            snapshot.keyLow[index] = keyLow[slot];
+            snapshot.origin[index] = origin[slot];
+            snapshot.dimension[index] = dimension[slot];
+            snapshot.zoneId[index] = zoneId[slot];
+            snapshot.instance[index] = instance[slot];
+            snapshot.expiry[index] = expiry[slot];
+            snapshot.logout[index] = logout[slot];
+            snapshot.flags[index] = flags[slot];
+            index++;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Copie dense et immuable des sessions à une version donnée, lisible sans verrou.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final long[] keyHigh;
+        private final long[] keyLow;
+        private final long[] origin;
+        private final int[] dimension;
+        private final int[] zoneId;
+        private final int[] instance;
+        private final long[] expiry;
+        private final long[] logout;
+        private final byte[] flags;
+
+        private Snapshot(int size, long version) {
+            this.version = version;
+            keyHigh = new long[size];
+            keyLow = new long[size];
+            origin = new long[size];
+            dimension = new int[size];
+            zoneId = new int[size];
+            instance = new int[size];
+            expiry = new long[size];
+            logout = new long[size];
+            flags = new byte[size];
+        }
+
+        public int size() {
+            return flags.length;
+        }
+
+        /**
+         * @return La version de la table copiée : deux copies de même version ont le même contenu.
+         */
+        public long version() {
+            return version;
+        }
+
+        public UUID playerId(int index) {
+            return new UUID(keyHigh[index], keyLow[index]);
+        }
+
+        public boolean hasOrigin(int index) {
+            return (flags[index] & HAS_ORIGIN) != 0;
+        }
+
+        public int originX(int index) {
+            return Position.unpackX(origin[index]);
+        }
+
+        public int originY(int index) {
+            return Position.unpackY(origin[index]);
+        }
+
+        public int originZ(int index) {
+            return Position.unpackZ(origin[index]);
+        }
+
+        public String dimensionId(int index) {
+            return DimensionIds.idAt(dimension[index]);
+        }
+
+        public int zoneId(int index) {
+            return zoneId[index];
+        }
+
+        public int instance(int index) {
+            return instance[index];
+        }
+
+        public long expiryTimeMillis(int index) {
+            return expiry[index];
+        }
+
+        public long logoutTimeMillis(int index) {
+            return logout[index];
+        }
+
+        public boolean fiveMinuteWarningSent(int index) {
+            return (flags[index] & FIVE_MINUTE_WARNING) != 0;
+        }
+
+        public boolean oneMinuteWarningSent(int index) {
+            return (flags[index] & ONE_MINUTE_WARNING) != 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.floye.safarizone.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Échéancier des sessions SafariZone.
+ * <p>
+ * Chaque session enregistre ses échéances (avertissements 5 min / 1 min et expiration) au moment où elle
+ * démarre ou reprend, auprès de l'échéancier de la {@link SessionClock} : aucun balayage périodique de toutes
+ * les sessions, chaque timer se déclenche à l'heure prévue.
+ */
+public class SessionTimers {
+    private static final long FIVE_MINUTES_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long ONE_MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final SessionClock clock;
+    private final ObjIntConsumer<UUID> onWarning;
+    private final Consumer<UUID> onExpired;
+    private final Map<UUID, Handle> handles = new ConcurrentHashMap<>();
+
+    /**
+     * @param clock     L'horloge et son échéancier.
+     * @param onWarning Appelé avec le nombre de minutes restantes (5 ou 1).
+     * @param onExpired Appelé à l'échéance de la session.
+     */
+    public SessionTimers(SessionClock clock, ObjIntConsumer<UUID> onWarning, Consumer<UUID> onExpired) {
+        this.clock = clock;
+        this.onWarning = onWarning;
+        this.onExpired = onExpired;
+    }
+
+    /**
+     * Planifie (ou replanifie) les échéances d'une session active.
+     * Les avertissements déjà envoyés ou dont l'heure est dépassée ne sont pas planifiés.
+     *
+     * @param playerId L'UUID du joueur.
+     * @param state    L'état de session, dont l'échéance {@code expiryTimeMillis} est absolue.
+     */
+    public void schedule(UUID playerId, PlayerSafariState state) {
+        Handle handle = new Handle(playerId);
+        Handle previous = handles.put(playerId, handle);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        long delay = state.expiryTimeMillis - clock.currentTimeMillis();
+        if (!state.fiveMinuteWarningSent && delay - FIVE_MINUTES_MILLIS >= 0) {
+            handle.add(() -> onWarning.accept(playerId, 5), delay - FIVE_MINUTES_MILLIS);
+        }
+        if (!state.oneMinuteWarningSent && delay - ONE_MINUTE_MILLIS >= 0) {
+            handle.add(() -> onWarning.accept(playerId, 1), delay - ONE_MINUTE_MILLIS);
+        }
+        handle.add(() -> onExpired.accept(playerId), Math.max(0, delay));
+    }
+
+    /**
+     * Annule toutes les échéances d'un joueur (déconnexion ou fin de session).
+     *
+     * @param playerId L'UUID du joueur.
+     */
+    public void cancel(UUID playerId) {
+        Handle handle = handles.remove(playerId);
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+
+    /* Arrêt : toutes les échéances sont abandonnées, elles seront replanifiées au prochain démarrage */
+    public void cancelAll() {
+        for (UUID playerId : handles.keySet()) {
+            cancel(playerId);
+        }
+    }
+
+    public int scheduledCount() {
+        return handles.size();
+    }
+
+    /* Ensemble des timers d'une session ; un timer d'une ancienne planification ne se déclenche jamais */
+    private class Handle {
+        private final UUID playerId;
+        private final List<SessionClock.Timer> timers = new ArrayList<>(3);
+
+        private Handle(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        private void add(Runnable task, long delayMillis) {
+            timers.add(clock.schedule(() -> {
+                if (handles.get(playerId) != this) return;
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    SessionEngine.LOGGER.error("Erreur échéance session {}", playerId, e);
+                }
+            }, delayMillis));
+        }
+
+        private void cancel() {
+            timers.forEach(SessionClock.Timer::cancel);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+
+/**
+ * Accès en lecture seule aux sessions, utilisable depuis n'importe quel thread.
+ */
+public interface SessionView {
+    int size();
+
+    boolean contains(UUID playerId);
+
+    int countInZone(int zoneId);
+
+    int countInInstance(int zoneId, int instance);
+
+    /**
+     * @return Une copie de l'état de session (les modifications ne sont pas répercutées), ou null.
+     */
+    PlayerSafariState get(UUID playerId);
+
+    /**
+     * @return Une copie compacte et cohérente de toutes les sessions, par exemple pour un snapshot disque.
+     */
+    SessionStore.Snapshot snapshot();
+}
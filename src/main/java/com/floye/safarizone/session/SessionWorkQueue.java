@@ -0,0 +1,66 @@
+package com.floye.safarizone.session;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * File des travaux coûteux du thread principal (téléportations de sortie), exécutée par tranches de temps à chaque
+ * tick : une vague d'expirations simultanées est étalée sur plusieurs ticks au lieu d'allonger un seul tick.
+ * <p>
+ * Les joueurs en ligne passent d'abord, puis les échéances les plus dépassées. Toutes les méthodes s'exécutent sur
+ * le thread principal.
+ */
+public class SessionWorkQueue {
+    private static final Comparator<Work> ORDER = Comparator.comparing(Work::online).reversed()
+            .thenComparingLong(Work::dueMillis)
+            .thenComparingLong(Work::sequence);
+
+    private final PriorityQueue<Work> queue = new PriorityQueue<>(ORDER);
+    private long sequence;
+
+    private record Work(UUID playerId, boolean online, long dueMillis, long sequence, Runnable task) {
+    }
+
+    /**
+     * @param playerId  Le joueur concerné.
+     * @param online    true si le joueur est en ligne.
+     * @param dueMillis L'échéance du travail ; la plus ancienne passe en premier.
+     * @param task      Le travail.
+     */
+    public void submit(UUID playerId, boolean online, long dueMillis, Runnable task) {
+        queue.add(new Work(playerId, online, dueMillis, sequence++, task));
+    }
+
+    /**
+     * Exécute les travaux dans l'ordre de priorité jusqu'à épuisement du budget. Au moins un travail est exécuté
+     * par appel : la file avance même si un seul travail dépasse le budget.
+     *
+     * @param budgetNanos Le temps accordé pour ce tick.
+     * @return Le nombre de travaux exécutés.
+     */
+    public int run(long budgetNanos) {
+        long start = System.nanoTime();
+        int done = 0;
+        Work work;
+        while ((work = queue.poll()) != null) {
+            try {
+                work.task.run();
+            } catch (Exception e) {
+                SessionEngine.LOGGER.error("Erreur lors du traitement de la session de {}", work.playerId, e);
+            }
+            done++;
+            if (System.nanoTime() - start >= budgetNanos) break;
+        }
+        return done;
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /* Arrêt : les travaux en attente sont abandonnés */
+    public void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.floye.safarizone.session;
+
+/**
+ * Zone vue par le moteur : tarif, durée et copies (instances). La disposition concrète (position d'arrivée, limites,
+ * monde) reste à la couche serveur, qui la retrouve par l'identifiant de zone et l'index d'instance.
+ */
+public interface SessionZone {
+    int id();
+
+    double cost();
+
+    int durationMinutes();
+
+    int instanceCount();
+
+    /**
+     * @return L'identifiant de dimension de l'instance, ou null si la zone n'en a plus autant.
+     */
+    String instanceDimension(int instance);
+
+    /* Même disposition et mêmes règles ; la durée n'affecte pas les sessions déjà ouvertes */
+    boolean isEquivalentTo(SessionZone other);
+}
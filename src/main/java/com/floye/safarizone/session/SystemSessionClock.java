@@ -0,0 +1,49 @@
+package com.floye.safarizone.session;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Horloge système : les échéances sont indexées par date dans la file du {@link ScheduledThreadPoolExecutor},
+ * aucun balayage périodique de toutes les sessions.
+ */
+public class SystemSessionClock implements SessionClock {
+    private final Supplier<? extends ScheduledExecutorService> scheduler;
+
+    /**
+     * Horloge avec son propre échéancier (benchmarks, outils).
+     */
+    public SystemSessionClock() {
+        ScheduledThreadPoolExecutor own = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "SafariZone-Timers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Une annulation retire immédiatement l'entrée de la file au lieu d'attendre son échéance
+        own.setRemoveOnCancelPolicy(true);
+        this.scheduler = () -> own;
+    }
+
+    /**
+     * Horloge dont l'échéancier appartient à l'appelant et peut changer d'un démarrage à l'autre.
+     *
+     * @param scheduler Fournit l'échéancier courant.
+     */
+    public SystemSessionClock(Supplier<? extends ScheduledExecutorService> scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public Timer schedule(Runnable task, long delayMillis) {
+        ScheduledFuture<?> future = scheduler.get().schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+    }
+}
@@ -0,0 +1,22 @@
+package com.floye.safarizone.session;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Téléportations d'entrée et de sortie. Chaque téléportation est précédée d'une préparation (chargement de la
+ * destination) dont le résultat est livré sur le thread principal. Une instance de zone est désignée par
+ * l'identifiant de sa zone et son index dans la table publiée.
+ */
+public interface Teleporter {
+    /**
+     * @return Un CompletableFuture contenant false si la dimension de l'instance est indisponible.
+     */
+    CompletableFuture<Boolean> prepareZone(int zoneId, int instance);
+
+    boolean teleportToZone(UUID playerId, int zoneId, int instance);
+
+    CompletableFuture<Void> prepareOrigin(PlayerSafariState state);
+
+    boolean teleportToOrigin(UUID playerId, PlayerSafariState state);
+}
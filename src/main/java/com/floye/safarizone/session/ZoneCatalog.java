@@ -0,0 +1,36 @@
+package com.floye.safarizone.session;
+
+import java.util.List;
+
+/**
+ * Table immuable des zones publiée au moteur, remplacée en bloc au rechargement de la configuration.
+ */
+public interface ZoneCatalog {
+    ZoneCatalog EMPTY = new ZoneCatalog() {
+        @Override
+        public SessionZone get(int zoneId) {
+            return null;
+        }
+
+        @Override
+        public List<? extends SessionZone> zones() {
+            return List.of();
+        }
+    };
+
+    /**
+     * @return La zone, ou null si elle n'existe pas.
+     */
+    SessionZone get(int zoneId);
+
+    /* Zones dans l'ordre croissant des identifiants */
+    List<? extends SessionZone> zones();
+
+    default boolean contains(int zoneId) {
+        return get(zoneId) != null;
+    }
+
+    default int size() {
+        return zones().size();
+    }
+}
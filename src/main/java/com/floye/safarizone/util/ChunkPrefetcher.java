@@ -0,0 +1,119 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ChunkTicketType;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.ChunkStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Préchargement asynchrone des chunks de destination des téléportations.
+ * <p>
+ * Les chunks autour des points d'apparition des zones sont maintenus chargés par un ticket dès le démarrage.
+ * Avant une téléportation vers une destination quelconque (retour à la position d'origine), les chunks
+ * voisins sont demandés au gestionnaire de chunks et la téléportation n'est lancée qu'une fois prêts :
+ * le thread serveur ne bloque plus sur un chargement ou une génération synchrone.
+ */
+public class ChunkPrefetcher {
+    private static final int SPAWN_TICKET_RADIUS = 2;
+    private static final int PREFETCH_RADIUS = 1;
+    private static final int PREFETCH_TICKET_TICKS = 20 * 10;
+    private static final long PREFETCH_TIMEOUT_SECONDS = 10;
+
+    private static final ChunkTicketType<ChunkPos> SPAWN_TICKET =
+            ChunkTicketType.create("safarizone_spawn", Comparator.comparingLong(ChunkPos::toLong));
+    private static final ChunkTicketType<ChunkPos> PREFETCH_TICKET =
+            ChunkTicketType.create("safarizone_prefetch", Comparator.comparingLong(ChunkPos::toLong), PREFETCH_TICKET_TICKS);
+
+    /**
+     * Maintient chargés les chunks autour du point d'apparition de chaque instance des zones qui le demandent
+     * (thread serveur).
+     *
+     * @param server Le serveur.
+     * @param zones  Les zones configurées.
+     */
+    public static void holdZoneSpawns(MinecraftServer server, ZoneTable zones) {
+        for (SafariZoneData zone : zones.zones()) {
+            if (!zone.keepSpawnLoaded) continue;
+
+            for (SafariZoneData.Instance instance : zone.instances) {
+                ServerWorld world = instance.world;
+                if (world == null) {
+                    SafariMod.LOGGER.warn("Dimension {} introuvable, point d'apparition de la zone {} (instance {}) non préchargé",
+                            instance.dimensionId, zone.id, instance.index);
+                    continue;
+                }
+
+                ChunkPos chunk = new ChunkPos(instance.spawnPosition);
+                world.getChunkManager().addTicket(SPAWN_TICKET, chunk, SPAWN_TICKET_RADIUS, chunk);
+            }
+        }
+    }
+
+    /**
+     * Retire les tickets posés par {@link #holdZoneSpawns} pour une ancienne table de zones (rechargement).
+     *
+     * @param zones Les zones précédemment configurées.
+     */
+    public static void releaseZoneSpawns(ZoneTable zones) {
+        for (SafariZoneData zone : zones.zones()) {
+            if (!zone.keepSpawnLoaded) continue;
+
+            for (SafariZoneData.Instance instance : zone.instances) {
+                ServerWorld world = instance.world;
+                if (world == null) continue;
+
+                ChunkPos chunk = new ChunkPos(instance.spawnPosition);
+                world.getChunkManager().removeTicket(SPAWN_TICKET, chunk, SPAWN_TICKET_RADIUS, chunk);
+            }
+        }
+    }
+
+    /**
+     * Charge de manière asynchrone les chunks autour d'une destination (thread serveur).
+     * Le résultat se termine toujours, sur le thread serveur, même si le chargement échoue ou dépasse le délai :
+     * la téléportation se rabat alors sur le chargement synchrone habituel.
+     *
+     * @param world La dimension de destination.
+     * @param pos   La position de destination.
+     * @return Un CompletableFuture terminé sur le thread serveur lorsque les chunks sont prêts.
+     */
+    public static CompletableFuture<Void> prefetch(ServerWorld world, BlockPos pos) {
+        ChunkPos center = new ChunkPos(pos);
+        ServerChunkManager chunkManager = world.getChunkManager();
+        if (chunkManager.isChunkLoaded(center.x, center.z)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // Le ticket garde les chunks chargés le temps que la téléportation ait lieu
+        chunkManager.addTicket(PREFETCH_TICKET, center, PREFETCH_RADIUS, center);
+
+        List<CompletableFuture<?>> chunks = new ArrayList<>();
+        for (int dx = -PREFETCH_RADIUS; dx <= PREFETCH_RADIUS; dx++) {
+            for (int dz = -PREFETCH_RADIUS; dz <= PREFETCH_RADIUS; dz++) {
+                chunks.add(chunkManager.getChunkFutureSyncOnMainThread(center.x + dx, center.z + dz, ChunkStatus.FULL, true));
+            }
+        }
+
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .completeOnTimeout(null, PREFETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        SafariMod.LOGGER.warn("Préchargement des chunks autour de {} échoué", pos, error);
+                    }
+                    world.getServer().execute(() -> ready.complete(null));
+                });
+        return ready;
+    }
+}
@@ -0,0 +1,63 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.session.DimensionIds;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.util.Identifier;
+import net.minecraft.world.World;
+
+import java.util.Arrays;
+
+/**
+ * Clés de monde des identifiants de dimension internés par {@link DimensionIds}.
+ * <p>
+ * Chaque identifiant n'est analysé qu'une seule fois : les appels suivants retournent la même clé
+ * {@link RegistryKey}, sans analyse ni allocation.
+ */
+public class DimensionKeys {
+    private static final Object INVALID = new Object();
+    // Par index interné : la clé, INVALID pour un identifiant invalide, null s'il n'a pas encore été analysé
+    private static volatile Object[] byIndex = new Object[0];
+
+    /**
+     * Retourne la clé de monde associée à un identifiant de dimension.
+     *
+     * @param dimensionId L'identifiant, par exemple {@code minecraft:overworld}.
+     * @return La clé internée, ou null si l'identifiant est absent ou invalide.
+     */
+    public static RegistryKey<World> of(String dimensionId) {
+        int index = DimensionIds.indexOf(dimensionId);
+        if (index < 0) return null;
+
+        Object[] keys = byIndex;
+        Object key = index < keys.length ? keys[index] : null;
+        if (key == null) {
+            key = register(index, dimensionId);
+        }
+        return key != INVALID ? cast(key) : null;
+    }
+
+    /**
+     * @return L'identifiant de la dimension, interné.
+     */
+    public static String idOf(RegistryKey<World> key) {
+        return DimensionIds.intern(key.getValue().toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static RegistryKey<World> cast(Object key) {
+        return (RegistryKey<World>) key;
+    }
+
+    private static synchronized Object register(int index, String dimensionId) {
+        Object[] keys = byIndex;
+        if (index < keys.length && keys[index] != null) return keys[index];
+
+        Identifier identifier = Identifier.tryParse(dimensionId);
+        Object key = identifier != null ? RegistryKey.of(RegistryKeys.WORLD, identifier) : INVALID;
+        Object[] grown = Arrays.copyOf(keys, Math.max(keys.length, index + 1));
+        grown[index] = key;
+        byIndex = grown;
+        return key;
+    }
+}
@@ -1,31 +1,125 @@
 package com.floye.safarizone.util;
 
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.config.PaymentLedger;
+import com.floye.safarizone.session.Payment;
+import com.floye.safarizone.session.Payment.Status;
 import net.impactdev.impactor.api.economy.EconomyService;
 import net.impactdev.impactor.api.economy.accounts.Account;
 import net.impactdev.impactor.api.economy.transactions.EconomyTransaction;
 import net.impactdev.impactor.api.economy.transactions.details.EconomyResultType;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 public class EconomyHandler {
+    private static final int MAX_PENDING_CHARGES = 32;
+    private static final int MAX_CACHED_ACCOUNTS = 1024;
+    private static final long ACCOUNT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    // Nouvel essai d'un remboursement ou d'une inscription au registre échoués : délai doublé à chaque échec, au plus 5 min
+    private static final long REFUND_RETRY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    private static final long MAX_REFUND_RETRY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // Back-pressure : au-delà de ce nombre de débits en cours, les nouvelles entrées sont refusées
+    private static final Semaphore chargePermits = new Semaphore(MAX_PENDING_CHARGES);
+
+    // Cache des comptes : une recherche en cours est partagée par tous les appelants du même UUID
+    private static final Map<UUID, CachedAccount> accountCache = new ConcurrentHashMap<>();
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
 
     /**
-     * Récupère le compte d'un joueur de manière asynchrone.
+     * Récupère le compte d'un joueur de manière asynchrone, depuis le cache si possible.
      *
      * @param playerId L'UUID du joueur.
      * @return Un CompletableFuture contenant le compte du joueur, ou null si le compte n'existe pas.
      */
     public static CompletableFuture<Account> getAccount(UUID playerId) {
+        long now = System.currentTimeMillis();
+        CachedAccount cached = accountCache.get(playerId);
+        if (cached != null && now < cached.expiresAtMillis) {
+            cacheHits.increment();
+            return cached.account;
+        }
+
+        CachedAccount[] created = new CachedAccount[1];
+        CachedAccount entry = accountCache.compute(playerId, (id, existing) -> {
+            if (existing != null && now < existing.expiresAtMillis) return existing;
+            created[0] = new CachedAccount(lookupAccount(id), now + ACCOUNT_TTL_MILLIS);
+            return created[0];
+        });
+
+        if (created[0] == null) {
+            cacheHits.increment();
+            return entry.account;
+        }
+
+        cacheMisses.increment();
+        // Un échec de recherche n'est pas mis en cache
+        entry.account.thenAccept(account -> {
+            if (account == null) accountCache.remove(playerId, entry);
+        });
+        if (accountCache.size() > MAX_CACHED_ACCOUNTS) {
+            evictOldest(now);
+        }
+        return entry.account;
+    }
+
+    /**
+     * Précharge le compte d'un joueur (connexion) pour que sa première entrée en zone n'attende pas le stockage.
+     *
+     * @param playerId L'UUID du joueur.
+     */
+    public static void prewarm(UUID playerId) {
+        getAccount(playerId);
+    }
+
+    /**
+     * Retire le compte d'un joueur du cache (déconnexion).
+     *
+     * @param playerId L'UUID du joueur.
+     */
+    public static void invalidate(UUID playerId) {
+        accountCache.remove(playerId);
+    }
+
+    public static long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    public static long cacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    private static CompletableFuture<Account> lookupAccount(UUID playerId) {
         EconomyService economyService = EconomyService.instance();
         return economyService.account(playerId)
                 .exceptionally(ex -> {
-                    ex.printStackTrace(); // Log l'erreur
+                    SafariMod.LOGGER.error("Erreur récupération compte {}", playerId, ex);
                     return null;
                 });
     }
 
+    /* Retire les entrées expirées puis, si besoin, les plus anciennes jusqu'à repasser sous 3/4 de la capacité */
+    private static void evictOldest(long now) {
+        accountCache.values().removeIf(cached -> now >= cached.expiresAtMillis);
+
+        int excess = accountCache.size() - MAX_CACHED_ACCOUNTS * 3 / 4;
+        if (excess <= 0) return;
+
+        accountCache.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().expiresAtMillis))
+                .limit(excess)
+                .forEach(entry -> accountCache.remove(entry.getKey(), entry.getValue()));
+    }
+
     /**
      * Récupère la balance du compte d'un joueur.
      *
@@ -61,4 +155,190 @@ public class EconomyHandler {
         EconomyTransaction transaction = account.withdraw(bigAmount);
         return transaction.result() == EconomyResultType.SUCCESS;
     }
+
+    /**
+     * Débite un paiement de manière asynchrone, sur un thread virtuel : les retraits bloquants ne tournent jamais
+     * sur le thread serveur.
+     * Un paiement ne peut être débité qu'une seule fois, quel que soit le nombre d'appels, et un joueur dont un
+     * paiement est encore ouvert dans le {@link PaymentLedger} n'est pas débité.
+     *
+     * @param payment Le paiement à débiter.
+     * @return Un CompletableFuture contenant true si le montant a été débité, false sinon.
+     * @throws RejectedExecutionException si trop de débits sont déjà en cours ou si le serveur s'arrête.
+     */
+    public static CompletableFuture<Boolean> charge(Payment payment) {
+        Executor economyExecutor = SafariRuntime.io();
+        if (!payment.transition(Status.PENDING, Status.CHARGING)) {
+            return CompletableFuture.completedFuture(payment.status() == Status.CHARGED);
+        }
+        if (!chargePermits.tryAcquire()) {
+            payment.setStatus(Status.PENDING);
+            throw new RejectedExecutionException("Étape économie saturée");
+        }
+
+        long start = System.nanoTime();
+        return getAccount(payment.playerId)
+                .thenApplyAsync(account -> {
+                    if (account == null || !PaymentLedger.begin(payment)) {
+                        payment.setStatus(Status.FAILED);
+                        return false;
+                    }
+                    // Une exception ici laisse le débit ouvert dans le registre : son issue est inconnue
+                    boolean charged = remove(account, payment.amount);
+                    payment.setStatus(charged ? Status.CHARGED : Status.FAILED);
+                    PaymentLedger.record(payment);
+                    return charged;
+                }, economyExecutor)
+                .whenComplete((charged, error) -> {
+                    chargePermits.release();
+                    SafariMetrics.ECONOMY_CHARGE.recordSince(start);
+                    if (error != null) {
+                        SafariMod.LOGGER.error("Débit {} de {} pour {} interrompu, issue inconnue", payment.key, payment.amount, payment.playerId, error);
+                    }
+                });
+    }
+
+    /**
+     * Rembourse un paiement débité. Sans effet si le paiement n'a pas été débité ou a déjà été remboursé.
+     * Le remboursement est inscrit au {@link PaymentLedger} avant le versement : rien n'est versé tant que
+     * l'inscription échoue. Inscription et versement sont retentés avec un délai croissant ; un remboursement encore
+     * dû à l'arrêt est repris au démarrage suivant.
+     *
+     * @param payment Le paiement à rembourser.
+     * @return true si le remboursement a été lancé par cet appel.
+     */
+    public static boolean refund(Payment payment) {
+        if (!payment.transition(Status.CHARGED, Status.REFUNDING)) return false;
+
+        economyExecutor().execute(() -> recordThen(payment, () -> deposit(payment, 0), 0));
+        return true;
+    }
+
+    /**
+     * Reprend les paiements restés ouverts au dernier arrêt (démarrage du serveur, sessions chargées) : un débit
+     * dont la session a été enregistrée est réglé, un débit sans session est remboursé et un remboursement
+     * interrompu est retenté. Un débit interrompu avant son résultat est signalé pour vérification manuelle.
+     *
+     * @param hasSession Indique, éventuellement après une lecture du stockage, si un joueur a une session enregistrée.
+     * @throws IllegalStateException si le registre des paiements est illisible.
+     */
+    public static void resumePayments(Function<UUID, CompletableFuture<Boolean>> hasSession) {
+        List<Payment> payments;
+        try {
+            payments = PaymentLedger.open();
+        } catch (IOException e) {
+            throw new IllegalStateException("Registre des paiements illisible, démarrage SafariZone interrompu", e);
+        }
+
+        for (Payment payment : payments) {
+            switch (payment.status()) {
+                case CHARGING -> {
+                    SafariMod.LOGGER.error("Débit {} de {} pour {} interrompu par l'arrêt, issue inconnue : à vérifier",
+                            payment.key, payment.amount, payment.playerId);
+                    payment.setStatus(Status.FAILED);
+                    PaymentLedger.record(payment);
+                }
+                // La session peut être à lire sur disque : le débit est tranché hors du thread serveur
+                case CHARGED -> hasSession.apply(payment.playerId).thenAcceptAsync(paid -> {
+                    if (paid) {
+                        payment.setStatus(Status.SETTLED);
+                        persist(payment);
+                    } else if (refund(payment)) {
+                        SafariMetrics.recordRefund(payment.zoneId);
+                        SafariEventLog.recordRefund(payment.playerId, payment.zoneId, payment.amount);
+                    }
+                }, economyExecutor());
+                case REFUNDING -> economyExecutor().execute(() -> deposit(payment, 0));
+                default -> {
+                }
+            }
+        }
+        if (!payments.isEmpty()) {
+            SafariMod.LOGGER.info("{} paiements repris du registre", payments.size());
+        }
+    }
+
+    private static Executor economyExecutor() {
+        try {
+            return SafariRuntime.io();
+        } catch (RejectedExecutionException e) {
+            // Arrêt en cours : le remboursement est effectué sur l'appelant plutôt que perdu
+            return Runnable::run;
+        }
+    }
+
+    /* Le paiement est en cours de remboursement et inscrit au registre */
+    private static void deposit(Payment payment, int failures) {
+        getAccount(payment.playerId).thenAcceptAsync(account -> {
+            boolean refunded;
+            try {
+                refunded = account != null && add(account, payment.amount);
+            } catch (RuntimeException e) {
+                SafariMod.LOGGER.error("Erreur lors du remboursement {}", payment.key, e);
+                refunded = false;
+            }
+
+            if (refunded) {
+                payment.setStatus(Status.REFUNDED);
+                SafariMod.LOGGER.info("Remboursement {} de {} pour {} effectué", payment.key, payment.amount, payment.playerId);
+                // Tant que REFUNDED n'est pas inscrit, un redémarrage verserait une seconde fois
+                persist(payment);
+            } else {
+                retryDeposit(payment, failures + 1);
+            }
+        }, economyExecutor());
+    }
+
+    private static void retryDeposit(Payment payment, int failures) {
+        long delayMillis = retryDelayMillis(failures);
+        SafariMod.LOGGER.error("Remboursement {} de {} pour {} impossible, nouvel essai dans {} ms",
+                payment.key, payment.amount, payment.playerId, delayMillis);
+        try {
+            SafariRuntime.scheduler().schedule(() -> deposit(payment, failures), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            SafariMod.LOGGER.warn("Remboursement {} repris au prochain démarrage", payment.key);
+        }
+    }
+
+    /*
+     * Inscrit l'état courant du paiement au registre puis poursuit. Une inscription échouée est retentée avec un délai
+     * croissant et la suite attend : aucun versement n'a lieu sans trace sur disque. À l'arrêt, le registre garde le
+     * dernier état inscrit, repris au démarrage suivant.
+     */
+    private static void recordThen(Payment payment, Runnable next, int failures) {
+        if (PaymentLedger.record(payment)) {
+            next.run();
+            return;
+        }
+
+        long delayMillis = retryDelayMillis(failures + 1);
+        SafariMod.LOGGER.error("Paiement {} ({}) de {} non inscrit au registre, nouvel essai dans {} ms",
+                payment.key, payment.status(), payment.playerId, delayMillis);
+        try {
+            SafariRuntime.scheduler().schedule(() -> economyExecutor().execute(() -> recordThen(payment, next, failures + 1)),
+                    delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            SafariMod.LOGGER.warn("Paiement {} repris au prochain démarrage dans son dernier état inscrit", payment.key);
+        }
+    }
+
+    /* Inscription sans suite, retentée jusqu'à réussir */
+    private static void persist(Payment payment) {
+        recordThen(payment, () -> {
+        }, 0);
+    }
+
+    private static long retryDelayMillis(int failures) {
+        return Math.min(MAX_REFUND_RETRY_MILLIS, REFUND_RETRY_MILLIS << Math.min(failures - 1, 6));
+    }
+
+    private static class CachedAccount {
+        private final CompletableFuture<Account> account;
+        private final long expiresAtMillis;
+
+        private CachedAccount(CompletableFuture<Account> account, long expiresAtMillis) {
+            this.account = account;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.*;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData.Instance;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Implémentation serveur des interfaces du {@link SessionEngine} : joueurs connectés, téléportation avec
+ * préchargement des chunks, messages, économie Impactor, limites de zone, compte à rebours, admission et métriques.
+ */
+class MinecraftSessionAdapter implements PlayerDirectory, Teleporter, Messenger, Payments, SessionListener {
+
+    private static ServerPlayerEntity player(UUID playerId) {
+        MinecraftServer server = SafariZoneManager.getServerInstance();
+        return server != null ? server.getPlayerManager().getPlayer(playerId) : null;
+    }
+
+    /* Joueurs */
+    @Override
+    public boolean isOnline(UUID playerId) {
+        ServerPlayerEntity player = player(playerId);
+        return player != null && !player.isDisconnected();
+    }
+
+    @Override
+    public Position position(UUID playerId) {
+        BlockPos pos = player(playerId).getBlockPos();
+        return new Position(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    @Override
+    public String dimension(UUID playerId) {
+        ServerPlayerEntity player = player(playerId);
+        return player != null ? DimensionKeys.idOf(player.getWorld().getRegistryKey()) : null;
+    }
+
+    /* Instance de la table publiée, ou null si la zone ou l'instance a été retirée entre-temps */
+    private static Instance instance(int zoneId, int index) {
+        SafariZoneData zone = SafariZoneManager.getZones().get(zoneId);
+        return zone != null ? zone.instance(index) : null;
+    }
+
+    private static BlockPos blockPos(Position position) {
+        return new BlockPos(position.x(), position.y(), position.z());
+    }
+
+    /* Téléportation */
+    @Override
+    public CompletableFuture<Boolean> prepareZone(int zoneId, int index) {
+        Instance instance = instance(zoneId, index);
+        ServerWorld safariWorld = instance != null ? instance.world : null;
+        if (safariWorld == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return ChunkPrefetcher.prefetch(safariWorld, instance.spawnPosition).thenApply(ignored -> true);
+    }
+
+    @Override
+    public boolean teleportToZone(UUID playerId, int zoneId, int index) {
+        ServerPlayerEntity player = player(playerId);
+        Instance instance = instance(zoneId, index);
+        ServerWorld safariWorld = instance != null ? instance.world : null;
+        if (player == null || safariWorld == null) return false;
+
+        try {
+            player.teleport(
+                    safariWorld,
+                    instance.spawnPosition.getX() + 0.5,
+                    instance.spawnPosition.getY(),
+                    instance.spawnPosition.getZ() + 0.5,
+                    player.getYaw(),
+                    player.getPitch()
+            );
+            return true;
+        } catch (Exception e) {
+            SafariMod.LOGGER.error("Échec téléportation entrée SafariZone", e);
+            return false;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> prepareOrigin(PlayerSafariState state) {
+        ServerWorld targetWorld = SafariZoneManager.resolveOriginalWorld(SafariZoneManager.getServerInstance(), state);
+        return ChunkPrefetcher.prefetch(targetWorld, blockPos(state.originalPosition));
+    }
+
+    @Override
+    public boolean teleportToOrigin(UUID playerId, PlayerSafariState state) {
+        ServerPlayerEntity player = player(playerId);
+        if (player == null) return false;
+
+        try {
+            player.teleport(
+                    SafariZoneManager.resolveOriginalWorld(player.getServer(), state),
+                    state.originalPosition.x() + 0.5,
+                    state.originalPosition.y(),
+                    state.originalPosition.z() + 0.5,
+                    player.getYaw(),
+                    player.getPitch()
+            );
+            return true;
+        } catch (Exception e) {
+            SafariMod.LOGGER.error("Échec téléportation", e);
+            return false;
+        }
+    }
+
+    /* Messages */
+    @Override
+    public void send(UUID playerId, String message, boolean actionBar) {
+        ServerPlayerEntity player = player(playerId);
+        if (player != null) {
+            player.sendMessage(Text.literal(message), actionBar);
+        }
+    }
+
+    /* Économie */
+    @Override
+    public CompletableFuture<Boolean> charge(Payment payment) {
+        return EconomyHandler.charge(payment);
+    }
+
+    @Override
+    public boolean refund(Payment payment) {
+        return EconomyHandler.refund(payment);
+    }
+
+    /* Transitions de session */
+    @Override
+    public void onSessionStarted(UUID playerId, int zoneId, int instance) {
+        guard(playerId, zoneId, instance);
+        SafariMetrics.recordEntry(zoneId);
+    }
+
+    @Override
+    public void onSessionResumed(UUID playerId, int zoneId, int instance) {
+        guard(playerId, zoneId, instance);
+    }
+
+    private static void guard(UUID playerId, int zoneId, int index) {
+        SafariZoneData zone = SafariZoneManager.getZones().get(zoneId);
+        Instance instance = zone != null ? zone.instance(index) : null;
+        if (instance == null) return;
+
+        SafariBoundary.guard(playerId, zone, instance);
+        showCountdown(playerId, zone);
+    }
+
+    @Override
+    public void onSessionLoaded(UUID playerId, int zoneId) {
+        ZoneAdmission.occupy(zoneId);
+    }
+
+    @Override
+    public void onSessionSuspended(UUID playerId) {
+        SafariBoundary.release(playerId);
+        SafariCountdown.untrack(playerId);
+    }
+
+    @Override
+    public void onSessionEnded(UUID playerId, int zoneId) {
+        SafariMetrics.recordSessionEnd(zoneId);
+        ZoneAdmission.release(zoneId);
+    }
+
+    private static void showCountdown(UUID playerId, SafariZoneData zone) {
+        ServerPlayerEntity player = player(playerId);
+        PlayerSafariState state = SafariZoneManager.getPlayerStates().get(playerId);
+        if (player != null && state != null) {
+            SafariCountdown.track(player, zone.id, state.expiryTimeMillis);
+        }
+    }
+
+    @Override
+    public void onEntryAborted(UUID playerId, int zoneId) {
+        ZoneAdmission.release(zoneId);
+    }
+
+    @Override
+    public void onCharged(UUID playerId, int zoneId, double amount) {
+        SafariEventLog.recordPayment(playerId, zoneId, amount);
+    }
+
+    @Override
+    public void onRefund(UUID playerId, int zoneId, double amount) {
+        SafariMetrics.recordRefund(zoneId);
+        SafariEventLog.recordRefund(playerId, zoneId, amount);
+    }
+}
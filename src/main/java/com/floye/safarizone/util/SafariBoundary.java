@@ -0,0 +1,100 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Application des limites de zone pour les sessions actives.
+ * <p>
+ * Appelé par le mixin réseau uniquement lorsqu'un joueur change de bloc : un joueur immobile ou qui reste
+ * dans son bloc ne coûte rien. Les limites de chaque session sont mises en cache à l'entrée ou à la reprise.
+ */
+public class SafariBoundary {
+    private static final Map<UUID, Guard> guards = new ConcurrentHashMap<>();
+
+    /* Action appliquée lorsqu'un joueur quitte les limites de sa zone */
+    public enum BoundaryAction {
+        PUSH_BACK, END_SESSION, NONE
+    }
+
+    public static void guard(UUID playerId, SafariZoneData zone, SafariZoneData.Instance instance) {
+        if (zone.boundaryAction == BoundaryAction.NONE) {
+            guards.remove(playerId);
+            return;
+        }
+        guards.put(playerId, new Guard(instance.worldKey, instance.bounds, zone.boundaryAction));
+    }
+
+    public static void release(UUID playerId) {
+        guards.remove(playerId);
+    }
+
+    /* Arrêt du serveur */
+    public static void reset() {
+        guards.clear();
+    }
+
+    /**
+     * Vérifie la position d'un joueur qui vient de changer de bloc ou de dimension (thread serveur).
+     *
+     * @param player Le joueur.
+     */
+    public static void onBlockChanged(ServerPlayerEntity player) {
+        Guard guard = guards.get(player.getUuid());
+        if (guard == null) return;
+
+        long start = System.nanoTime();
+        BlockPos pos = player.getBlockPos();
+        boolean inside = player.getWorld().getRegistryKey() == guard.world &&
+                guard.bounds.contains(pos.getX(), pos.getY(), pos.getZ());
+        SafariMetrics.BOUNDARY_CHECK.recordSince(start);
+        if (inside) {
+            guard.lastInside = pos.asLong();
+            return;
+        }
+
+        // Jamais vu à l'intérieur (point d'apparition hors limites) : rien vers quoi repousser
+        if (guard.lastInside == Long.MIN_VALUE) return;
+
+        switch (guard.action) {
+            case PUSH_BACK -> pushBack(player, guard);
+            case END_SESSION -> {
+                guards.remove(player.getUuid());
+                player.sendMessage(Text.literal("Vous avez quitté la zone Safari, votre session est terminée."), false);
+                SafariZoneManager.endSession(player);
+            }
+            case NONE -> { }
+        }
+    }
+
+    private static void pushBack(ServerPlayerEntity player, Guard guard) {
+        ServerWorld world = player.getServer().getWorld(guard.world);
+        if (world == null) return;
+
+        BlockPos target = BlockPos.fromLong(guard.lastInside);
+        player.teleport(world, target.getX() + 0.5, target.getY(), target.getZ() + 0.5, player.getYaw(), player.getPitch());
+        player.sendMessage(Text.literal("Vous ne pouvez pas quitter la zone Safari."), true);
+    }
+
+    private static class Guard {
+        private final RegistryKey<World> world;
+        private final SafariZoneData.Bounds bounds;
+        private final BoundaryAction action;
+        private long lastInside = Long.MIN_VALUE;
+
+        private Guard(RegistryKey<World> world, SafariZoneData.Bounds bounds, BoundaryAction action) {
+            this.world = world;
+            this.bounds = bounds;
+            this.action = action;
+        }
+    }
+}
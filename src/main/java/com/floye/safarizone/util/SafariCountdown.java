@@ -0,0 +1,149 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.boss.BossBar;
+import net.minecraft.entity.boss.ServerBossBar;
+import net.minecraft.network.packet.s2c.play.OverlayMessageS2CPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.util.*;
+
+/**
+ * Compte à rebours affiché aux joueurs en session, une fois par seconde.
+ * <p>
+ * Les sessions sont regroupées par zone et par seconde d'échéance : tous les joueurs d'un groupe voient le
+ * même temps restant pendant toute leur session. Chaque seconde, un seul texte (mis en cache par nombre de
+ * secondes) et un seul paquet ou une seule barre de boss sont produits par groupe, quel que soit le nombre
+ * de joueurs. Toutes les méthodes s'exécutent sur le thread serveur.
+ */
+public class SafariCountdown {
+    private static final int TICKS_PER_SECOND = 20;
+    private static final long LAST_MINUTE_SECONDS = 60;
+
+    private static final Map<GroupKey, Group> groups = new HashMap<>();
+    private static final Map<UUID, Group> groupByPlayer = new HashMap<>();
+    private static final Int2ObjectMap<Text> texts = new Int2ObjectOpenHashMap<>();
+    private static int tickCounter;
+
+    /* Affichage du compte à rebours d'une zone */
+    public enum CountdownDisplay {
+        ACTION_BAR, BOSS_BAR, NONE
+    }
+
+    /**
+     * Affiche le compte à rebours d'une session qui démarre ou reprend.
+     *
+     * @param player       Le joueur.
+     * @param zoneId       L'identifiant de la zone.
+     * @param expiryMillis L'échéance de la session.
+     */
+    public static void track(ServerPlayerEntity player, int zoneId, long expiryMillis) {
+        untrack(player.getUuid());
+
+        Group group = groups.computeIfAbsent(new GroupKey(zoneId, Math.floorDiv(expiryMillis, 1000L)), Group::new);
+        group.players.add(player);
+        groupByPlayer.put(player.getUuid(), group);
+        if (group.bossBar != null) {
+            group.bossBar.addPlayer(player);
+        }
+    }
+
+    public static void untrack(UUID playerId) {
+        Group group = groupByPlayer.remove(playerId);
+        if (group == null) return;
+
+        for (Iterator<ServerPlayerEntity> iterator = group.players.iterator(); iterator.hasNext(); ) {
+            ServerPlayerEntity player = iterator.next();
+            if (player.getUuid().equals(playerId)) {
+                iterator.remove();
+                if (group.bossBar != null) {
+                    group.bossBar.removePlayer(player);
+                }
+                break;
+            }
+        }
+        if (group.players.isEmpty()) {
+            group.hideBossBar();
+            groups.remove(group.key);
+        }
+    }
+
+    /* Arrêt du serveur : les groupes retiennent des joueurs de la partie terminée */
+    public static void reset() {
+        groups.values().forEach(Group::hideBossBar);
+        groups.clear();
+        groupByPlayer.clear();
+        tickCounter = 0;
+    }
+
+    public static void tick(MinecraftServer server) {
+        if (++tickCounter % TICKS_PER_SECOND != 0 || groups.isEmpty()) return;
+
+        long nowSecond = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        ZoneTable zones = SafariZoneManager.getZones();
+        for (Group group : groups.values()) {
+            SafariZoneData zone = zones.get(group.key.zoneId);
+            CountdownDisplay display = zone != null ? zone.countdownDisplay : CountdownDisplay.NONE;
+            int remaining = (int) Math.max(0, group.key.expirySecond - nowSecond);
+
+            switch (display) {
+                case ACTION_BAR -> {
+                    group.hideBossBar();
+                    OverlayMessageS2CPacket packet = new OverlayMessageS2CPacket(text(remaining));
+                    for (ServerPlayerEntity player : group.players) {
+                        player.networkHandler.sendPacket(packet);
+                    }
+                }
+                case BOSS_BAR -> group.showBossBar(text(remaining),
+                        Math.min(1f, remaining / (zone.durationMinutes * 60f)),
+                        remaining <= LAST_MINUTE_SECONDS ? BossBar.Color.RED : BossBar.Color.GREEN);
+                case NONE -> group.hideBossBar();
+            }
+        }
+    }
+
+    /* Un texte par nombre de secondes, partagé par tous les groupes et toutes les zones */
+    private static Text text(int remainingSeconds) {
+        Text text = texts.get(remainingSeconds);
+        if (text == null) {
+            text = Text.literal(String.format(Locale.ROOT, "Safari : %d:%02d", remainingSeconds / 60, remainingSeconds % 60));
+            texts.put(remainingSeconds, text);
+        }
+        return text;
+    }
+
+    private record GroupKey(int zoneId, long expirySecond) {
+    }
+
+    private static class Group {
+        private final GroupKey key;
+        private final List<ServerPlayerEntity> players = new ArrayList<>();
+        private ServerBossBar bossBar;
+
+        private Group(GroupKey key) {
+            this.key = key;
+        }
+
+        /* Chaque modification n'envoie un paquet aux membres du groupe que si la valeur change */
+        private void showBossBar(Text name, float percent, BossBar.Color color) {
+            if (bossBar == null) {
+                bossBar = new ServerBossBar(name, color, BossBar.Style.PROGRESS);
+                players.forEach(bossBar::addPlayer);
+            }
+            bossBar.setName(name);
+            bossBar.setPercent(percent);
+            bossBar.setColor(color);
+        }
+
+        private void hideBossBar() {
+            if (bossBar != null) {
+                bossBar.clearPlayers();
+                bossBar = null;
+            }
+        }
+    }
+}
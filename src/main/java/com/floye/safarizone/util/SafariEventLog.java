@@ -0,0 +1,289 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.SessionEvent;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Historique des sessions pour l'analyse (fréquentation des zones, durée des sessions, déconnexions, recettes) :
+ * un événement par ligne JSON dans {@code config/SafariZone/events/events-<date>-<heure>[-n].jsonl.gz}.
+ * <p>
+ * Les producteurs (thread serveur, threads de l'économie) écrivent dans un tampon circulaire de taille fixe,
+ * préalloué en colonnes : aucune allocation ni verrou, et un tampon plein perd l'événement au lieu de bloquer
+ * ({@link #dropped()}). Un consommateur unique vide le tampon chaque seconde sur un thread virtuel et écrit le
+ * lot dans le fichier de l'heure, compressé et synchronisé sur disque avant que ses cases ne soient libérées ;
+ * au-delà de {@link #MAX_FILE_BYTES} ou à l'heure suivante, un nouveau fichier est ouvert et les plus anciens
+ * au-delà de {@link #MAX_FILES} sont supprimés.
+ */
+public class SafariEventLog {
+    private static final String DIRECTORY = "config/SafariZone/events";
+    private static final int CAPACITY = 1 << 14;
+    private static final int MASK = CAPACITY - 1;
+    private static final long DRAIN_PERIOD_MILLIS = 1000;
+    private static final long MAX_FILE_BYTES = 16 * 1024 * 1024;
+    private static final int MAX_FILES = 24 * 30;
+    // events-<date>-<heure>[-n].jsonl.gz : heure, puis numéro de partie (absent pour la première)
+    private static final Pattern FILE_NAME = Pattern.compile("events-(\\d{8}-\\d{2})(?:-(\\d{1,6}))?\\.jsonl\\.gz");
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("yyyyMMdd-HH").withZone(ZoneOffset.UTC);
+
+    public enum Type {
+        ENTER, PAY, REFUND, WARN, LOGOUT, RECONNECT, EXPIRE
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    // Tampon circulaire multi-producteurs : une case est lisible quand published contient sa séquence
+    private static final long[] times = new long[CAPACITY];
+    private static final byte[] types = new byte[CAPACITY];
+    private static final long[] playerHigh = new long[CAPACITY];
+    private static final long[] playerLow = new long[CAPACITY];
+    private static final int[] zones = new int[CAPACITY];
+    private static final int[] instances = new int[CAPACITY];
+    // Échéance de la session, ou montant (bits du double) pour PAY et REFUND
+    private static final long[] values = new long[CAPACITY];
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong head = new AtomicLong();
+    private static volatile long tail;
+    private static final LongAdder dropped = new LongAdder();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    // Consommateur : un seul à la fois, sous le verrou
+    private static final ReentrantLock drainLock = new ReentrantLock();
+    private static final StringBuilder line = new StringBuilder(160);
+    private static final StringBuilder batch = new StringBuilder(64 * 1024);
+    private static ScheduledFuture<?> drainer;
+    private static Writer out;
+    private static FileOutputStream file;
+    private static String fileHour;
+    private static int filePart;
+
+    private SafariEventLog() {
+    }
+
+    /**
+     * Transition de session (port de journal du moteur) : ENTER, WARNING, LOGOUT, RECONNECT et EXPIRE.
+     *
+     * @param event    La transition.
+     * @param playerId L'UUID du joueur.
+     * @param state    L'état de la session (dernier état connu pour EXPIRE), ou null.
+     */
+    public static void record(SessionEvent event, UUID playerId, PlayerSafariState state) {
+        Type type = switch (event) {
+            case ENTER -> Type.ENTER;
+            case WARNING -> Type.WARN;
+            case LOGOUT -> Type.LOGOUT;
+            case RECONNECT -> Type.RECONNECT;
+            case EXPIRE -> Type.EXPIRE;
+        };
+        if (state != null) {
+            publish(type, playerId, state.zoneId, state.instance, state.expiryTimeMillis);
+        } else {
+            publish(type, playerId, -1, 0, 0);
+        }
+    }
+
+    public static void recordPayment(UUID playerId, int zoneId, double amount) {
+        publish(Type.PAY, playerId, zoneId, 0, Double.doubleToRawLongBits(amount));
+    }
+
+    public static void recordRefund(UUID playerId, int zoneId, double amount) {
+        publish(Type.REFUND, playerId, zoneId, 0, Double.doubleToRawLongBits(amount));
+    }
+
+    private static void publish(Type type, UUID playerId, int zoneId, int instance, long value) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= CAPACITY) {
+                dropped.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & MASK);
+        times[slot] = System.currentTimeMillis();
+        types[slot] = (byte) type.ordinal();
+        playerHigh[slot] = playerId.getMostSignificantBits();
+        playerLow[slot] = playerId.getLeastSignificantBits();
+        zones[slot] = zoneId;
+        instances[slot] = instance;
+        values[slot] = value;
+        published.lazySet(slot, sequence);
+    }
+
+    /**
+     * @return Le nombre d'événements perdus faute de place dans le tampon.
+     */
+    public static long dropped() {
+        return dropped.sum();
+    }
+
+    public static synchronized void start() {
+        if (drainer != null) return;
+
+        // L'échéancier ne fait que déclencher : la compression et l'écriture tournent sur un thread virtuel
+        drainer = SafariRuntime.scheduler().scheduleWithFixedDelay(() -> SafariRuntime.io().execute(SafariEventLog::drain),
+                DRAIN_PERIOD_MILLIS, DRAIN_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Vide le tampon sur le thread appelant puis ferme le fichier (arrêt du serveur, après l'arrêt du runtime).
+     */
+    public static synchronized void stop() {
+        if (drainer != null) {
+            drainer.cancel(false);
+            drainer = null;
+        }
+        drainLock.lock();
+        try {
+            drain();
+            closeFile();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    /*
+     * Les cases du lot ne sont libérées qu'une fois le lot écrit et synchronisé sur disque : un lot en échec reste
+     * dans le tampon et il est réécrit au vidage suivant, dans un nouveau fichier (le membre gzip interrompu n'est
+     * jamais prolongé). Un lot écrit en partie avant l'échec peut ainsi apparaître deux fois, jamais être perdu.
+     */
+    private static void drain() {
+        if (!drainLock.tryLock()) return;
+
+        try {
+            long sequence = tail;
+            if (published.get((int) (sequence & MASK)) != sequence) return;
+
+            batch.setLength(0);
+            while (published.get((int) (sequence & MASK)) == sequence) {
+                format((int) (sequence & MASK));
+                batch.append(line);
+                sequence++;
+            }
+
+            Writer writer = openFile();
+            writer.append(batch);
+            writer.flush();
+            file.getFD().sync();
+            tail = sequence;
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de l'écriture du journal d'événements, nouvel essai au prochain vidage", e);
+            closeFile();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private static void format(int slot) {
+        Type type = TYPES[types[slot]];
+        line.setLength(0);
+        line.append("{\"time\":").append(times[slot])
+                .append(",\"event\":\"").append(type.name())
+                .append("\",\"player\":\"").append(new UUID(playerHigh[slot], playerLow[slot]))
+                .append('"');
+        if (zones[slot] >= 0) {
+            line.append(",\"zone\":").append(zones[slot]);
+        }
+        switch (type) {
+            case PAY, REFUND -> line.append(",\"amount\":").append(Double.longBitsToDouble(values[slot]));
+            case EXPIRE -> {
+                if (zones[slot] >= 0) line.append(",\"instance\":").append(instances[slot]);
+            }
+            default -> line.append(",\"instance\":").append(instances[slot])
+                    .append(",\"expiry\":").append(values[slot]);
+        }
+        line.append("}\n");
+    }
+
+    /* Fichier de l'heure courante ; un fichier existant reçoit un nouveau membre gzip, lisible à la suite du précédent */
+    private static Writer openFile() throws IOException {
+        String hour = HOUR.format(Instant.now());
+        if (out != null && hour.equals(fileHour) && file.getChannel().position() < MAX_FILE_BYTES) {
+            return out;
+        }
+
+        int part = hour.equals(fileHour) ? filePart + 1 : 0;
+        closeFile();
+        Path directory = Path.of(DIRECTORY);
+        Files.createDirectories(directory);
+        Path target = directory.resolve("events-" + hour + (part > 0 ? "-" + part : "") + ".jsonl.gz");
+        while (Files.exists(target) && Files.size(target) >= MAX_FILE_BYTES) {
+            part++;
+            target = directory.resolve("events-" + hour + "-" + part + ".jsonl.gz");
+        }
+
+        file = new FileOutputStream(target.toFile(), true);
+        // Vidage complet du compresseur à chaque lot, puis synchronisation du fichier (drain) : chaque lot est
+        // lisible sur disque sans attendre la fermeture du fichier
+        out = new OutputStreamWriter(new GZIPOutputStream(file, 64 * 1024, true), StandardCharsets.UTF_8);
+        fileHour = hour;
+        filePart = part;
+        deleteOldFiles(directory);
+        return out;
+    }
+
+    /* Du plus ancien au plus récent : par heure puis par numéro de partie (-10 vient après -9, pas avant -2) */
+    private static void deleteOldFiles(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> fileOrder(path) >= 0)
+                    .sorted(Comparator.comparingLong(SafariEventLog::fileOrder))
+                    .toList();
+        }
+        for (int i = 0; i < files.size() - MAX_FILES; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /* Rang d'un fichier du journal (aaaammjjhh suivi du numéro de partie sur 6 chiffres), -1 pour un autre fichier */
+    private static long fileOrder(Path path) {
+        Matcher matcher = FILE_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) return -1;
+
+        long hour = Long.parseLong(matcher.group(1).replace("-", ""));
+        int part = matcher.group(2) != null ? Integer.parseInt(matcher.group(2)) : 0;
+        return hour * 1_000_000 + part;
+    }
+
+    private static void closeFile() {
+        if (out == null) return;
+
+        try {
+            out.close();
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de la fermeture du journal d'événements", e);
+        }
+        out = null;
+        file = null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.session.SessionJfr;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Événements JDK Flight Recorder du mod, pour relier un tick lent au joueur, à la zone et à l'opération en cause.
+ * <p>
+ * Désactivés par défaut : un événement non activé ne coûte qu'une allocation que la JIT élimine. Le profil
+ * {@code config/SafariZone/safarizone.jfc}, copié au premier démarrage, les active avec les seuils conseillés :
+ * {@code -XX:StartFlightRecording:settings=default,settings=config/SafariZone/safarizone.jfc} (JDK 17+), ou
+ * {@code jcmd <pid> JFR.start settings=default settings=config/SafariZone/safarizone.jfc} sur un serveur lancé.
+ * Les événements d'entrée et de sortie de zone sont émis par le moteur de sessions ({@link SessionJfr}).
+ */
+public final class SafariJfr {
+    private static final String SETTINGS_RESOURCE = "/safarizone.jfc";
+    private static final String SETTINGS_FILE_NAME = "config/SafariZone/safarizone.jfc";
+
+    private SafariJfr() {
+    }
+
+    /**
+     * Copie le profil JFR dans le dossier de configuration s'il n'y est pas (un profil modifié est conservé).
+     */
+    public static void exportSettings() {
+        Path target = Path.of(SETTINGS_FILE_NAME);
+        if (Files.exists(target)) return;
+
+        try (InputStream settings = SafariJfr.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (settings == null) return;
+            Files.createDirectories(target.getParent());
+            Files.copy(settings, target);
+        } catch (IOException e) {
+            SafariMod.LOGGER.warn("Impossible de copier le profil JFR SafariZone", e);
+        }
+    }
+
+    /* Durée : un passage de la file des sorties en fin de tick */
+    @Name("safarizone.ExitQueuePass")
+    @Label("Passage de la file des sorties")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class ExitQueuePass extends Event {
+        @Label("Travaux exécutés")
+        public int executed;
+        @Label("Travaux restants")
+        public int remaining;
+        @Label("Budget")
+        @Timespan(Timespan.NANOSECONDS)
+        public long budget;
+    }
+
+    /* Durée : l'écriture d'un lot de sessions ou un point de sauvegarde, sur un thread d'entrée/sortie */
+    @Name("safarizone.SessionSave")
+    @Label("Écriture des sessions")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class SessionSave extends Event {
+        @Label("Stockage")
+        public String storage;
+        @Label("Point de sauvegarde")
+        public boolean checkpoint;
+        @Label("Sessions")
+        public int sessions;
+        @Label("Octets écrits")
+        @DataAmount
+        public long bytes;
+    }
+
+    /* Durée : le chargement des sessions au démarrage, ou d'une session à la connexion de son joueur */
+    @Name("safarizone.SessionLoad")
+    @Label("Chargement des sessions")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class SessionLoad extends Event {
+        @Label("Stockage")
+        public String storage;
+        @Label("Joueur")
+        @Description("Vide pour le chargement complet du démarrage")
+        public String player;
+        @Label("Sessions")
+        public int sessions;
+    }
+
+    /* Durée : lecture et validation du fichier de configuration (démarrage ou rechargement) */
+    @Name("safarizone.ConfigLoad")
+    @Label("Chargement de la configuration")
+    @Category("SafariZone")
+    @StackTrace(false)
+    public static final class ConfigLoad extends Event {
+        @Label("Fichier")
+        public String path;
+        @Label("Taille")
+        @DataAmount
+        public long bytes;
+        @Label("Zones")
+        public int zones;
+        @Label("Valide")
+        public boolean valid;
+    }
+}
@@ -0,0 +1,331 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Métriques du mod : compteurs et histogrammes de latence sans verrou.
+ * <p>
+ * Les compteurs sont des {@link LongAdder} (répartis par cellule, pas de contention entre threads) et les
+ * histogrammes des tableaux de {@link LongAdder} à seaux logarithmiques : enregistrer une mesure ne coûte
+ * qu'un incrément. Les valeurs sont exposées par {@code /safariZone stats} et écrites périodiquement au
+ * format texte Prometheus dans {@code config/SafariZone/metrics.prom}.
+ */
+public final class SafariMetrics {
+    private static final String EXPORT_FILE_NAME = "config/SafariZone/metrics.prom";
+    private static final long EXPORT_PERIOD_SECONDS = 15;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    public static final Histogram JOURNAL_FLUSH = new Histogram("safarizone_journal_flush_seconds",
+            "Durée d'écriture d'un lot d'événements dans le journal des sessions");
+    public static final Histogram SNAPSHOT_WRITE = new Histogram("safarizone_snapshot_write_seconds",
+            "Durée d'une compaction (snapshot complet des sessions)");
+    public static final Histogram BOUNDARY_CHECK = new Histogram("safarizone_boundary_check_seconds",
+            "Durée d'une vérification des limites de zone lors d'un changement de bloc");
+    public static final Histogram ADMISSION_TICK = new Histogram("safarizone_admission_tick_seconds",
+            "Durée du traitement des files d'attente des zones");
+    public static final Histogram ECONOMY_CHARGE = new Histogram("safarizone_economy_charge_seconds",
+            "Durée d'un débit, de la soumission à la réponse de l'économie");
+    public static final Histogram EXIT_WORK_TICK = new Histogram("safarizone_exit_work_tick_seconds",
+            "Durée des sorties de zone traitées pendant un tick");
+
+    private static final LongAdder journalBytes = new LongAdder();
+    private static final LongAdder snapshotBytes = new LongAdder();
+    private static final Map<Integer, ZoneCounters> zoneCounters = new ConcurrentHashMap<>();
+
+    private static ScheduledFuture<?> exporter;
+
+    private SafariMetrics() {
+    }
+
+    public static void recordEntry(int zoneId) {
+        zone(zoneId).entries.increment();
+    }
+
+    public static void recordSessionEnd(int zoneId) {
+        zone(zoneId).sessionEnds.increment();
+    }
+
+    public static void recordRefund(int zoneId) {
+        zone(zoneId).refunds.increment();
+    }
+
+    public static void recordSpawnRejected(int zoneId) {
+        zone(zoneId).spawnRejections.increment();
+    }
+
+    public static void recordJournalBytes(long bytes) {
+        journalBytes.add(bytes);
+    }
+
+    public static void recordSnapshotBytes(long bytes) {
+        snapshotBytes.add(bytes);
+    }
+
+    public static long journalBytes() {
+        return journalBytes.sum();
+    }
+
+    public static long snapshotBytes() {
+        return snapshotBytes.sum();
+    }
+
+    private static ZoneCounters zone(int zoneId) {
+        return zoneCounters.computeIfAbsent(zoneId, id -> new ZoneCounters());
+    }
+
+    /**
+     * Démarre l'écriture périodique du fichier Prometheus.
+     */
+    public static synchronized void startExporter() {
+        if (exporter != null) return;
+
+        // L'échéancier ne fait que déclencher : l'écriture du fichier tourne sur un thread virtuel
+        exporter = SafariRuntime.scheduler().scheduleAtFixedRate(() -> SafariRuntime.io().execute(SafariMetrics::export),
+                EXPORT_PERIOD_SECONDS, EXPORT_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrête l'écriture périodique après un dernier export.
+     */
+    public static synchronized void stopExporter() {
+        if (exporter == null) return;
+
+        exporter.cancel(false);
+        exporter = null;
+        export();
+    }
+
+    /**
+     * Résumé lisible des métriques, pour la commande {@code /safariZone stats}.
+     *
+     * @return Le texte à afficher, une ligne par groupe de métriques.
+     */
+    public static String summary() {
+        StringBuilder text = new StringBuilder("Statistiques SafariZone");
+        for (SafariZoneData zone : SafariZoneManager.getZones().zones()) {
+            ZoneCounters counters = zoneCounters.get(zone.id);
+            text.append(String.format(Locale.ROOT, "%nZone %d : %d actives, %d entrées, %d terminées, %d remboursements",
+                    zone.id, SafariZoneManager.activeSessions(zone.id),
+                    counters != null ? counters.entries.sum() : 0,
+                    counters != null ? counters.sessionEnds.sum() : 0,
+                    counters != null ? counters.refunds.sum() : 0));
+            if (zone.spawnLimit.isLimited()) {
+                text.append(String.format(Locale.ROOT, " ; créatures %d/%d, %d apparitions refusées",
+                        SpawnBudget.count(zone.id), zone.spawnLimit.budget(SafariZoneManager.activeSessions(zone.id)),
+                        counters != null ? counters.spawnRejections.sum() : 0));
+            }
+            if (zone.instances.length > 1) {
+                text.append(" ; par instance :");
+                for (SafariZoneData.Instance instance : zone.instances) {
+                    text.append(' ').append(instance.index).append('=').append(SafariZoneManager.activeSessions(zone.id, instance.index));
+                }
+            }
+        }
+        appendLatency(text, "Journal", JOURNAL_FLUSH);
+        appendLatency(text, "Snapshot", SNAPSHOT_WRITE);
+        appendLatency(text, "Limites", BOUNDARY_CHECK);
+        appendLatency(text, "Files d'attente", ADMISSION_TICK);
+        appendLatency(text, "Économie", ECONOMY_CHARGE);
+        appendLatency(text, "Sorties par tick", EXIT_WORK_TICK);
+        text.append(String.format(Locale.ROOT, "%nOctets écrits : journal %d, snapshots %d", journalBytes.sum(), snapshotBytes.sum()));
+        text.append(String.format(Locale.ROOT, "%nCache comptes : %d succès, %d échecs ; échéances planifiées : %d",
+                EconomyHandler.cacheHits(), EconomyHandler.cacheMisses(), SafariZoneManager.scheduledTimers()));
+        text.append(String.format(Locale.ROOT, "%nSorties en attente : %d ; événements d'historique perdus : %d",
+                SafariZoneManager.queuedExits(), SafariEventLog.dropped()));
+        return text.toString();
+    }
+
+    private static void appendLatency(StringBuilder text, String label, Histogram histogram) {
+        text.append(String.format(Locale.ROOT, "%n%s : %d mesures, p50 %.2f ms, p99 %.2f ms",
+                label, histogram.count(), histogram.quantileNanos(0.5) / 1e6, histogram.quantileNanos(0.99) / 1e6));
+    }
+
+    /* Thread d'export : le fichier est remplacé d'un bloc pour que le collecteur ne lise jamais un export partiel */
+    private static void export() {
+        try {
+            Path file = Path.of(EXPORT_FILE_NAME);
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, prometheusText(), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            SafariMod.LOGGER.error("Erreur lors de l'écriture des métriques", e);
+        }
+    }
+
+    static String prometheusText() {
+        StringBuilder text = new StringBuilder();
+
+        header(text, "safarizone_active_sessions", "Sessions en cours par zone", "gauge");
+        for (SafariZoneData zone : SafariZoneManager.getZones().zones()) {
+            sample(text, "safarizone_active_sessions", zone.id, SafariZoneManager.activeSessions(zone.id));
+        }
+        header(text, "safarizone_instance_sessions", "Sessions en cours par instance de zone", "gauge");
+        for (SafariZoneData zone : SafariZoneManager.getZones().zones()) {
+            for (SafariZoneData.Instance instance : zone.instances) {
+                text.append("safarizone_instance_sessions{zone=\"").append(zone.id).append("\",instance=\"").append(instance.index)
+                        .append("\"} ").append(SafariZoneManager.activeSessions(zone.id, instance.index)).append('\n');
+            }
+        }
+        zoneCounter(text, "safarizone_entries_total", "Entrées en zone", counters -> counters.entries);
+        zoneCounter(text, "safarizone_session_ends_total", "Sessions terminées (expiration ou sortie)", counters -> counters.sessionEnds);
+        zoneCounter(text, "safarizone_refunds_total", "Paiements remboursés", counters -> counters.refunds);
+        zoneCounter(text, "safarizone_spawn_rejections_total", "Apparitions refusées, budget de la zone atteint", counters -> counters.spawnRejections);
+
+        header(text, "safarizone_journal_bytes_total", "Octets ajoutés au journal des sessions", "counter");
+        text.append("safarizone_journal_bytes_total ").append(journalBytes.sum()).append('\n');
+        header(text, "safarizone_snapshot_bytes_total", "Octets écrits dans les snapshots", "counter");
+        text.append("safarizone_snapshot_bytes_total ").append(snapshotBytes.sum()).append('\n');
+
+        header(text, "safarizone_account_cache_hits_total", "Comptes économiques servis par le cache", "counter");
+        text.append("safarizone_account_cache_hits_total ").append(EconomyHandler.cacheHits()).append('\n');
+        header(text, "safarizone_account_cache_misses_total", "Comptes économiques recherchés", "counter");
+        text.append("safarizone_account_cache_misses_total ").append(EconomyHandler.cacheMisses()).append('\n');
+
+        header(text, "safarizone_queued_exits", "Sorties de zone en attente d'un tick", "gauge");
+        text.append("safarizone_queued_exits ").append(SafariZoneManager.queuedExits()).append('\n');
+
+        header(text, "safarizone_event_log_dropped_total", "Événements d'historique perdus, tampon plein", "counter");
+        text.append("safarizone_event_log_dropped_total ").append(SafariEventLog.dropped()).append('\n');
+
+        JOURNAL_FLUSH.appendPrometheus(text);
+        SNAPSHOT_WRITE.appendPrometheus(text);
+        BOUNDARY_CHECK.appendPrometheus(text);
+        ADMISSION_TICK.appendPrometheus(text);
+        ECONOMY_CHARGE.appendPrometheus(text);
+        EXIT_WORK_TICK.appendPrometheus(text);
+        return text.toString();
+    }
+
+    private static void zoneCounter(StringBuilder text, String name, String help,
+                                    Function<ZoneCounters, LongAdder> counter) {
+        header(text, name, help, "counter");
+        zoneCounters.forEach((zoneId, counters) -> sample(text, name, zoneId, counter.apply(counters).sum()));
+    }
+
+    private static void header(StringBuilder text, String name, String help, String type) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, int zoneId, long value) {
+        text.append(name).append("{zone=\"").append(zoneId).append("\"} ").append(value).append('\n');
+    }
+
+    private static class ZoneCounters {
+        private final LongAdder entries = new LongAdder();
+        private final LongAdder sessionEnds = new LongAdder();
+        private final LongAdder refunds = new LongAdder();
+        private final LongAdder spawnRejections = new LongAdder();
+    }
+
+    /**
+     * Histogramme de durées en nanosecondes : quatre seaux par puissance de deux, soit une erreur relative
+     * d'au plus 25 % sur les quantiles. Enregistrement sans verrou, lecture approximative mais cohérente.
+     */
+    public static final class Histogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKET_COUNT = SUB_BUCKETS * 62;
+
+        private final String name;
+        private final String help;
+        private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        private Histogram(String name, String help) {
+            this.name = name;
+            this.help = help;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Enregistre la durée écoulée depuis un instant {@link System#nanoTime()}.
+         *
+         * @param startNanos L'instant de départ.
+         */
+        public void recordSince(long startNanos) {
+            record(System.nanoTime() - startNanos);
+        }
+
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets[bucketOf(value)].increment();
+            count.increment();
+            sumNanos.add(value);
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        /**
+         * Estime un quantile par la borne haute du seau qui le contient.
+         *
+         * @param quantile Le quantile, entre 0 et 1.
+         * @return La durée estimée en nanosecondes, 0 si aucune mesure.
+         */
+        public long quantileNanos(double quantile) {
+            long[] counts = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] = buckets[i].sum();
+                total += counts[i];
+            }
+            if (total == 0) return 0;
+
+            long rank = (long) Math.ceil(quantile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(BUCKET_COUNT - 1);
+        }
+
+        private void appendPrometheus(StringBuilder text) {
+            header(text, name, help, "summary");
+            for (double quantile : QUANTILES) {
+                text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(String.format(Locale.ROOT, "%.9f", quantileNanos(quantile) / 1e9)).append('\n');
+            }
+            text.append(name).append("_sum ").append(String.format(Locale.ROOT, "%.9f", sumNanos.sum() / 1e9)).append('\n');
+            text.append(name).append("_count ").append(count.sum()).append('\n');
+        }
+
+        private static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+            return Math.min(BUCKET_COUNT - 1, SUB_BUCKETS * (exponent - 1) + sub);
+        }
+
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+
+            int exponent = bucket / SUB_BUCKETS + 1;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 2)) - 1;
+        }
+    }
+}
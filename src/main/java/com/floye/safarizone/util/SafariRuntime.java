@@ -0,0 +1,87 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.SafariMod;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteurs du mod, liés au cycle de vie du serveur.
+ * <p>
+ * Un seul échéancier porte tout ce qui est daté (échéances de session, écritures différées, export des
+ * métriques) et ne fait que déclencher : le travail bloquant (disque, économie) tourne sur des threads
+ * virtuels. Les deux sont créés au démarrage du serveur et arrêtés à sa fermeture, ce qui permet plusieurs
+ * démarrages dans la même JVM (serveur intégré).
+ */
+public class SafariRuntime {
+    private static final long DRAIN_TIMEOUT_SECONDS = 10;
+
+    private static volatile ScheduledThreadPoolExecutor scheduler;
+    private static volatile ExecutorService io;
+
+    public static synchronized void start() {
+        if (scheduler != null) return;
+
+        ScheduledThreadPoolExecutor timing = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "SafariZone-Echeancier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Une annulation retire immédiatement l'entrée de la file au lieu d'attendre son échéance
+        timing.setRemoveOnCancelPolicy(true);
+        io = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("SafariZone-IO-", 0).factory());
+        scheduler = timing;
+    }
+
+    /**
+     * @return L'échéancier unique, réservé aux tâches courtes qui déclenchent le travail réel ailleurs.
+     * @throws RejectedExecutionException si le serveur n'est pas démarré.
+     */
+    public static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService current = scheduler;
+        if (current == null) {
+            throw new RejectedExecutionException("Runtime SafariZone arrêté");
+        }
+        return current;
+    }
+
+    /**
+     * @return L'exécuteur des tâches bloquantes (un thread virtuel par tâche).
+     * @throws RejectedExecutionException si le serveur n'est pas démarré.
+     */
+    public static ExecutorService io() {
+        ExecutorService current = io;
+        if (current == null) {
+            throw new RejectedExecutionException("Runtime SafariZone arrêté");
+        }
+        return current;
+    }
+
+    /**
+     * Arrête l'échéancier puis attend, dans la limite de {@link #DRAIN_TIMEOUT_SECONDS}, la fin des tâches
+     * bloquantes en cours. Les échéances de session restantes sont abandonnées : elles sont replanifiées à la
+     * reconnexion des joueurs.
+     */
+    public static synchronized void stop() {
+        ScheduledThreadPoolExecutor timing = scheduler;
+        ExecutorService blocking = io;
+        if (timing == null) return;
+
+        scheduler = null;
+        io = null;
+        timing.shutdownNow();
+        blocking.shutdown();
+        try {
+            if (!blocking.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                SafariMod.LOGGER.warn("Tâches SafariZone toujours en cours après {} s, arrêt sans attendre", DRAIN_TIMEOUT_SECONDS);
+                blocking.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,263 +1,340 @@
 package com.floye.safarizone.util;
 
 import com.floye.safarizone.SafariMod;
+import com.floye.safarizone.config.ConfigLoader;
 import com.floye.safarizone.config.PlayerStateManager;
+import com.floye.safarizone.session.DimensionIds;
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.SessionEngine;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionView;
+import com.floye.safarizone.session.SessionZone;
+import com.floye.safarizone.session.SystemSessionClock;
+import com.floye.safarizone.util.SafariBoundary.BoundaryAction;
+import com.floye.safarizone.util.SafariCountdown.CountdownDisplay;
+import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
-import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.world.World;
 
 import java.util.*;
-import java.util.concurrent.*;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Point d'entrée serveur des sessions SafariZone : relie le {@link SessionEngine} au serveur Minecraft
+ * (joueurs, mondes, admission, limites de zone).
+ */
 public class SafariZoneManager {
-    private static final Map<Integer, SafariZoneData> safariZones = new ConcurrentHashMap<>();
-    private static final Map<UUID, PlayerSafariState> playerStates = new ConcurrentHashMap<>();
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
     private static MinecraftServer serverInstance;
-
-    /* Initialisation */
+    private static final MinecraftSessionAdapter adapter = new MinecraftSessionAdapter();
+    private static final SessionEngine engine = new SessionEngine(
+            new SystemSessionClock(SafariRuntime::scheduler),
+            runnable -> serverInstance.execute(runnable),
+            adapter, adapter, adapter, adapter,
+            SafariZoneManager::journal,
+            adapter
+    );
+    // Table publiée au moteur, avec les mondes et l'index spatial des zones
+    private static volatile ZoneTable zones = ZoneTable.EMPTY;
+    // Joueurs dont la session est en cours de lecture (stockage chargé à la demande) ; thread serveur
+    private static final Set<UUID> loadingSessions = new HashSet<>();
+
+    /* Initialisation (démarrage du serveur, runtime démarré) */
     public static void init() {
-        playerStates.putAll(PlayerStateManager.loadPlayerStates());
-        cleanInvalidStates();
-        startSaveTask();
-        startActivePlayerCheck();
-        SafariMod.LOGGER.info("SafariZoneManager initialisé avec {} états joueurs", playerStates.size());
+        loadingSessions.clear();
+        engine.load(PlayerStateManager.loadPlayerStates());
+        ZoneAdmission.rebuildOccupancy(engine.states());
+        EconomyHandler.resumePayments(SafariZoneManager::hasStoredSession);
+        int cleaned = cleanInvalidStates();
+        SafariMod.LOGGER.info("SafariZoneManager initialisé avec {} états joueurs ({} invalides nettoyés)", engine.states().size(), cleaned);
     }
 
-    /* Gestion des états */
-    public static int cleanInvalidStates() {
-        int invalidCount = 0;
-        Iterator<Map.Entry<UUID, PlayerSafariState>> it = playerStates.entrySet().iterator();
-
-        while (it.hasNext()) {
-            Map.Entry<UUID, PlayerSafariState> entry = it.next();
-            if (!entry.getValue().isValid()) {
-                it.remove();
-                invalidCount++;
-                SafariMod.LOGGER.debug("Nettoyage état invalide: {}", entry.getKey());
-            }
-        }
-
-        if (invalidCount > 0) {
-            PlayerStateManager.forceSavePlayerStates();
-        }
-        return invalidCount;
+    /* Session en mémoire ou, pour un stockage chargé à la demande, enregistrée : lue comme à la connexion, sur un
+       thread d'entrée/sortie et sous le verrou du stockage. Dans le doute, le débit est conservé */
+    private static CompletableFuture<Boolean> hasStoredSession(UUID playerId) {
+        if (engine.states().contains(playerId)) return CompletableFuture.completedFuture(true);
+        if (!PlayerStateManager.isLazy()) return CompletableFuture.completedFuture(false);
+
+        return PlayerStateManager.loadPlayerState(playerId)
+                .thenApply(Objects::nonNull)
+                .exceptionally(error -> {
+                    SafariMod.LOGGER.error("Session de {} illisible, paiement considéré comme réglé", playerId, error);
+                    return true;
+                });
     }
 
-    /* Tâches planifiées */
-    private static void startSaveTask() {
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                PlayerStateManager.savePlayerStates(getPlayerStates());
-            } catch (Exception e) {
-                SafariMod.LOGGER.error("Erreur sauvegarde planifiée", e);
-            }
-        }, 5, 5, TimeUnit.MINUTES);
+    /* Arrêt du serveur, après la sauvegarde finale : un démarrage suivant dans la même JVM repart de zéro */
+    public static void reset() {
+        loadingSessions.clear();
+        engine.reset();
     }
 
-    private static void startActivePlayerCheck() {
-        scheduler.scheduleAtFixedRate(() -> {
-            try {
-                long now = System.currentTimeMillis();
-                playerStates.forEach((playerId, state) -> {
-                    ServerPlayerEntity player = serverInstance.getPlayerManager().getPlayer(playerId);
-                    if (player != null) {
-                        long remainingMinutes = TimeUnit.MILLISECONDS.toMinutes(state.remainingTimeMillis);
-
-                        if (!state.fiveMinuteWarningSent && remainingMinutes <= 5) {
-                            player.sendMessage(Text.literal("Attention! Il vous reste 5 minutes."), true);
-                            state.fiveMinuteWarningSent = true;
-                        }
-
-                        if (!state.oneMinuteWarningSent && remainingMinutes <= 1) {
-                            player.sendMessage(Text.literal("Attention! Il vous reste 1 minute."), true);
-                            state.oneMinuteWarningSent = true;
-                        }
-                    }
-                });
-
-                playerStates.entrySet().removeIf(entry -> {
-                    if (now >= entry.getValue().remainingTimeMillis) {
-                        handleExpiredPlayer(entry.getKey(), entry.getValue());
-                        return true;
-                    }
-                    return false;
-                });
-            } catch (Exception e) {
-                SafariMod.LOGGER.error("Erreur vérification joueurs", e);
-            }
-        }, 10, 10, TimeUnit.SECONDS);
+    /* Port de journal du moteur : persistance des sessions et historique des événements */
+    private static void journal(SessionEvent event, UUID playerId, PlayerSafariState state) {
+        PlayerStateManager.record(event, playerId, state);
+        SafariEventLog.record(event, playerId, state);
     }
 
-    private static void handleExpiredPlayer(UUID playerId, PlayerSafariState state) {
-        serverInstance.execute(() -> {
-            ServerPlayerEntity player = serverInstance.getPlayerManager().getPlayer(playerId);
-            if (player != null) {
-                teleportPlayerOutOfSafariZone(player, state);
-            }
-        });
+    /* Gestion des états */
+    public static int cleanInvalidStates() {
+        return engine.cleanInvalidStates();
     }
 
     /* Gestion des joueurs */
     public static void enterSafariZone(PlayerEntity player, int zoneId) {
         if (!(player instanceof ServerPlayerEntity serverPlayer)) return;
 
-        SafariZoneData zone = safariZones.get(zoneId);
+        SafariZoneData zone = zones.get(zoneId);
         if (zone == null) {
             player.sendMessage(Text.literal("Zone invalide"), false);
             return;
         }
 
-        EconomyHandler.getAccount(player.getUuid()).thenAccept(account -> {
-            if (account == null || !EconomyHandler.remove(account, zone.cost)) {
-                serverPlayer.sendMessage(Text.literal("Erreur paiement"), false);
-                return;
-            }
+        UUID playerId = player.getUuid();
+        if (engine.hasSession(playerId)) {
+            player.sendMessage(Text.literal("Vous êtes déjà dans une zone Safari"), false);
+            return;
+        }
+        if (engine.isEntering(playerId)) {
+            player.sendMessage(Text.literal("Entrée déjà en cours"), false);
+            return;
+        }
+        if (loadingSessions.contains(playerId)) {
+            player.sendMessage(Text.literal("Chargement de votre session en cours, réessayez dans un instant"), false);
+            return;
+        }
 
-            serverInstance.execute(() -> {
-                try {
-                    ServerWorld safariWorld = serverInstance.getWorld(
-                            RegistryKey.of(RegistryKey.ofRegistry(Identifier.of("minecraft", "dimension")),
-                                    Identifier.of(zone.dimensionId)
-                            ));
-
-                    if (safariWorld == null) {
-                        serverPlayer.sendMessage(Text.literal("Dimension introuvable"), false);
-                        return;
-                    }
-
-                    long currentTime = System.currentTimeMillis();
-                    long durationMillis = TimeUnit.MINUTES.toMillis(zone.durationMinutes);
-
-                    PlayerSafariState state = new PlayerSafariState(
-                            player.getBlockPos(),
-                            player.getWorld().getRegistryKey(),
-                            zoneId,
-                            currentTime + durationMillis
-                    );
-
-                    playerStates.put(player.getUuid(), state);
-                    serverPlayer.teleport(
-                            safariWorld,
-                            zone.spawnPosition.getX() + 0.5,
-                            zone.spawnPosition.getY(),
-                            zone.spawnPosition.getZ() + 0.5,
-                            player.getYaw(),
-                            player.getPitch()
-                    );
-                    PlayerStateManager.forceSavePlayerStates();
-                } catch (Exception e) {
-                    SafariMod.LOGGER.error("Erreur entrée SafariZone", e);
-                }
-            });
-        });
+        if (ZoneAdmission.tryAdmit(serverPlayer, zoneId)) {
+            startEntry(serverPlayer, zoneId);
+        }
+    }
+
+    /**
+     * Démarre l'entrée d'un joueur admis : une place est réservée dans la zone et doit être libérée en cas d'échec.
+     *
+     * @param player Le joueur.
+     * @param zoneId L'identifiant de la zone.
+     */
+    static void startEntry(ServerPlayerEntity player, int zoneId) {
+        // Un joueur en attente ailleurs n'y sera pas admis une seconde fois pendant sa session
+        ZoneAdmission.dequeue(player.getUuid());
+        engine.enter(player.getUuid(), zoneId);
     }
 
     public static void updatePlayerStateOnLogout(ServerPlayerEntity player) {
-        PlayerSafariState state = playerStates.get(player.getUuid());
-        if (state != null) {
-            state.logoutTimeMillis = System.currentTimeMillis();
-            PlayerStateManager.forceSavePlayerStates();
-        }
+        ZoneAdmission.dequeue(player.getUuid());
+        engine.logout(player.getUuid());
     }
 
     public static void handlePlayerReconnection(ServerPlayerEntity player) {
-        PlayerSafariState state = playerStates.get(player.getUuid());
-        if (state == null) return;
-
-        if (!state.isValid()) {
-            playerStates.remove(player.getUuid());
+        UUID playerId = player.getUuid();
+        if (engine.hasSession(playerId) || !PlayerStateManager.isLazy()) {
+            engine.reconnect(playerId);
             return;
         }
 
-        serverInstance.execute(() -> {
-            try {
-                if (state.remainingTimeMillis <= 0) {
-                    teleportPlayerOutOfSafariZone(player, state);
-                    return;
-                }
-
-                if (state.logoutTimeMillis != null) {
-                    long remaining = state.remainingTimeMillis -
-                            (System.currentTimeMillis() - state.logoutTimeMillis);
-                    state.remainingTimeMillis = Math.max(0, remaining);
-                }
-
-                if (state.remainingTimeMillis <= 0) {
-                    teleportPlayerOutOfSafariZone(player, state);
-                } else {
-                    player.sendMessage(Text.literal("Temps restant: " +
-                            TimeUnit.MILLISECONDS.toSeconds(state.remainingTimeMillis) + "s"), true);
-                }
-            } catch (Exception e) {
-                SafariMod.LOGGER.error("Erreur reconnexion joueur", e);
+        // Session lue hors du thread serveur, puis reprise comme une reconnexion ordinaire si le joueur est resté
+        loadingSessions.add(playerId);
+        MinecraftServer server = serverInstance;
+        PlayerStateManager.loadPlayerState(playerId).whenComplete((state, error) -> server.execute(() -> {
+            loadingSessions.remove(playerId);
+            if (error != null) {
+                SafariMod.LOGGER.error("Erreur lors du chargement de la session de {}", playerId, error);
+                return;
             }
-        });
+            if (state != null && engine.restore(playerId, state) && adapter.isOnline(playerId)) {
+                engine.reconnect(playerId);
+            }
+        }));
     }
 
-    private static void teleportPlayerOutOfSafariZone(ServerPlayerEntity player, PlayerSafariState state) {
-        try {
-            ServerWorld targetWorld = resolveOriginalWorld(player, state);
-            player.teleport(
-                    targetWorld,
-                    state.originalPosition.getX() + 0.5,
-                    state.originalPosition.getY(),
-                    state.originalPosition.getZ() + 0.5,
-                    player.getYaw(),
-                    player.getPitch()
-            );
-            playerStates.remove(player.getUuid());
-            PlayerStateManager.forceSavePlayerStates();
-        } catch (Exception e) {
-            SafariMod.LOGGER.error("Échec téléportation", e);
-            player.sendMessage(Text.literal("Erreur téléportation"), false);
+    /* Fin de tick : sorties de zone en attente, dans la limite du budget configuré */
+    public static void tick(MinecraftServer server) {
+        if (engine.queuedWork() == 0) return;
+
+        SafariJfr.ExitQueuePass pass = new SafariJfr.ExitQueuePass();
+        pass.begin();
+        long start = System.nanoTime();
+        long budget = ConfigLoader.getTickBudgetNanos();
+        int executed = engine.runQueuedWork(budget);
+        SafariMetrics.EXIT_WORK_TICK.recordSince(start);
+        pass.end();
+        // Champs remplis seulement pour un passage enregistré (JFR actif, seuil dépassé)
+        if (pass.shouldCommit()) {
+            pass.budget = budget;
+            pass.executed = executed;
+            pass.remaining = engine.queuedWork();
+            pass.commit();
         }
     }
 
-    private static ServerWorld resolveOriginalWorld(ServerPlayerEntity player, PlayerSafariState state) {
-        // Essai avec la dimension sauvegardée
-        if (state.originalDimension != null) {
-            ServerWorld world = player.getServer().getWorld(state.originalDimension);
-            if (world != null) return world;
-        }
+    /**
+     * Termine immédiatement la session d'un joueur et le renvoie à sa position d'origine.
+     *
+     * @param player Le joueur.
+     */
+    public static void endSession(ServerPlayerEntity player) {
+        engine.endSession(player.getUuid());
+    }
 
-        // Fallback avec l'ID de dimension
-        if (state.originalDimensionId != null) {
-            Identifier dimId = Identifier.tryParse(state.originalDimensionId);
-            if (dimId != null) {
-                RegistryKey<World> worldKey = RegistryKey.of(
-                        RegistryKey.ofRegistry(Identifier.of("minecraft", "dimension")),
-                        dimId
-                );
-                ServerWorld world = player.getServer().getWorld(worldKey);
-                if (world != null) return world;
-            }
+    static ServerWorld resolveOriginalWorld(MinecraftServer server, PlayerSafariState state) {
+        RegistryKey<World> dimension = DimensionKeys.of(state.originalDimensionId);
+        if (dimension != null) {
+            ServerWorld world = server.getWorld(dimension);
+            if (world != null) return world;
         }
 
         // Dernier recours
-        return player.getServer().getOverworld();
+        return server.getOverworld();
     }
 
     /* Classes internes */
-    public static class SafariZoneData {
+    public static class SafariZoneData implements SessionZone {
+        public final int id;
         public final BlockPos spawnPosition;
         public final int durationMinutes;
         public final double cost;
         public final Bounds bounds;
         public final String dimensionId;
+        public final RegistryKey<World> worldKey;
+        // Copies de la zone ; l'instance 0 est la disposition déclarée (spawnPosition, bounds, dimensionId)
+        public final Instance[] instances;
+        public final BoundaryAction boundaryAction;
+        // 0 = illimité
+        public final int capacity;
+        public final double maxEntriesPerSecond;
+        public final boolean keepSpawnLoaded;
+        public final CountdownDisplay countdownDisplay;
+        public final SpawnLimit spawnLimit;
+
+        public SafariZoneData(int id, BlockPos pos, int duration, double cost, Bounds bounds, String dimId, BoundaryAction boundaryAction,
+                              int capacity, double maxEntriesPerSecond, boolean keepSpawnLoaded, CountdownDisplay countdownDisplay) {
+            this(id, pos, duration, cost, bounds, dimId, boundaryAction, capacity, maxEntriesPerSecond, keepSpawnLoaded,
+                    countdownDisplay, List.of(), SpawnLimit.NONE);
+        }
 
-        public SafariZoneData(BlockPos pos, int duration, double cost, Bounds bounds, String dimId) {
+        /**
+         * @param copies     Les instances supplémentaires (décalages ou autres dimensions), numérotées à partir de 1.
+         * @param spawnLimit Le budget d'apparition des créatures sauvages.
+         */
+        public SafariZoneData(int id, BlockPos pos, int duration, double cost, Bounds bounds, String dimId, BoundaryAction boundaryAction,
+                              int capacity, double maxEntriesPerSecond, boolean keepSpawnLoaded, CountdownDisplay countdownDisplay,
+                              List<InstanceLayout> copies, SpawnLimit spawnLimit) {
+            this.id = id;
             this.spawnPosition = pos;
             this.durationMinutes = duration;
             this.cost = cost;
             this.bounds = bounds;
-            this.dimensionId = dimId;
+            this.dimensionId = DimensionIds.intern(dimId);
+            this.worldKey = DimensionKeys.of(dimId);
+            this.instances = new Instance[copies.size() + 1];
+            this.instances[0] = new Instance(0, pos, bounds, dimId);
+            for (int i = 0; i < copies.size(); i++) {
+                InstanceLayout copy = copies.get(i);
+                this.instances[i + 1] = new Instance(i + 1, pos.add(copy.offsetX(), copy.offsetY(), copy.offsetZ()),
+                        bounds.offset(copy.offsetX(), copy.offsetY(), copy.offsetZ()),
+                        copy.dimensionId() != null ? copy.dimensionId() : dimId);
+            }
+            this.boundaryAction = boundaryAction;
+            this.capacity = capacity;
+            this.maxEntriesPerSecond = maxEntriesPerSecond;
+            this.keepSpawnLoaded = keepSpawnLoaded;
+            this.countdownDisplay = countdownDisplay;
+            this.spawnLimit = spawnLimit;
+        }
+
+        /**
+         * @return L'instance, ou null si la zone n'en a plus autant (configuration rechargée).
+         */
+        public Instance instance(int index) {
+            return index >= 0 && index < instances.length ? instances[index] : null;
+        }
+
+        @Override
+        public int id() {
+            return id;
+        }
+
+        @Override
+        public double cost() {
+            return cost;
+        }
+
+        @Override
+        public int durationMinutes() {
+            return durationMinutes;
+        }
+
+        @Override
+        public int instanceCount() {
+            return instances.length;
+        }
+
+        @Override
+        public String instanceDimension(int index) {
+            Instance instance = instance(index);
+            return instance != null ? instance.dimensionId : null;
+        }
+
+        @Override
+        public boolean isEquivalentTo(SessionZone other) {
+            return other instanceof SafariZoneData zone && isEquivalentTo(zone);
+        }
+
+        /* Même disposition et mêmes règles ; la durée n'affecte pas les sessions déjà ouvertes */
+        public boolean isEquivalentTo(SafariZoneData other) {
+            if (instances.length != other.instances.length || boundaryAction != other.boundaryAction) return false;
+            for (int i = 0; i < instances.length; i++) {
+                if (!instances[i].isEquivalentTo(other.instances[i])) return false;
+            }
+            return true;
+        }
+
+        /* Créatures sauvages autorisées dans la zone : base, plus une part par session en cours ; base < 0 = illimité */
+        public record SpawnLimit(int base, int perSession) {
+            public static final SpawnLimit NONE = new SpawnLimit(-1, 0);
+
+            public boolean isLimited() {
+                return base >= 0;
+            }
+
+            public int budget(int sessions) {
+                return base + perSession * sessions;
+            }
+        }
+
+        /* Copie déclarée dans la configuration : décalage par rapport à la zone, dimension facultative */
+        public record InstanceLayout(int offsetX, int offsetY, int offsetZ, String dimensionId) {
+        }
+
+        /* Emplacement concret d'une copie de la zone */
+        public static class Instance {
+            public final int index;
+            public final BlockPos spawnPosition;
+            public final Bounds bounds;
+            public final String dimensionId;
+            public final RegistryKey<World> worldKey;
+            // Mis à jour par ZoneTable au chargement / déchargement des mondes
+            public volatile ServerWorld world;
+
+            public Instance(int index, BlockPos spawnPosition, Bounds bounds, String dimId) {
+                this.index = index;
+                this.spawnPosition = spawnPosition;
+                this.bounds = bounds;
+                this.dimensionId = DimensionIds.intern(dimId);
+                this.worldKey = DimensionKeys.of(dimId);
+            }
+
+            public boolean isEquivalentTo(Instance other) {
+                return spawnPosition.equals(other.spawnPosition) &&
+                        bounds.isEquivalentTo(other.bounds) &&
+                        worldKey == other.worldKey;
+            }
         }
 
         public static class Bounds {
@@ -267,35 +344,22 @@ public class SafariZoneManager {
                 this.minY = minY; this.maxY = maxY;
                 this.minZ = minZ; this.maxZ = maxZ;
             }
-        }
-    }
 
-    public static class PlayerSafariState {
-        public final BlockPos originalPosition;
-        public transient RegistryKey<World> originalDimension;
-        public final String originalDimensionId;
-        public final int zoneId;
-        public long remainingTimeMillis;
-        public Long logoutTimeMillis;
-
-        // Added fields
-        public boolean fiveMinuteWarningSent = false;
-        public boolean oneMinuteWarningSent = false;
-
-
-        public PlayerSafariState(BlockPos pos, RegistryKey<World> dim, int zone, long time) {
-            this.originalPosition = pos;
-            this.originalDimension = dim;
-            this.originalDimensionId = dim != null ? dim.getValue().toString() : null;
-            this.zoneId = zone;
-            this.remainingTimeMillis = time;
-        }
+            public boolean isEquivalentTo(Bounds other) {
+                return minX == other.minX && maxX == other.maxX &&
+                        minY == other.minY && maxY == other.maxY &&
+                        minZ == other.minZ && maxZ == other.maxZ;
+            }
 
-        public boolean isValid() {
-            return originalPosition != null &&
-                    originalDimensionId != null &&
-                    remainingTimeMillis > 0 &&
-                    safariZones.containsKey(zoneId);
+            public Bounds offset(int dx, int dy, int dz) {
+                return new Bounds(minX + dx, maxX + dx, minY + dy, maxY + dy, minZ + dz, maxZ + dz);
+            }
+
+            public boolean contains(int x, int y, int z) {
+                return x >= minX && x <= maxX &&
+                        y >= minY && y <= maxY &&
+                        z >= minZ && z <= maxZ;
+            }
         }
     }
 
@@ -304,19 +368,78 @@ public class SafariZoneManager {
         serverInstance = server;
     }
 
-    public static void setZones(Map<Integer, SafariZoneData> zones) {
-        safariZones.clear();
-        safariZones.putAll(zones);
+    public static MinecraftServer getServerInstance() {
+        return serverInstance;
+    }
+
+    public static void setZones(ZoneTable table) {
+        if (serverInstance != null) {
+            serverInstance.getWorlds().forEach(table::onWorldLoad);
+        }
+        zones = table;
+        engine.setZones(table);
+        ZoneAdmission.configure(table);
+        if (serverInstance != null) {
+            SpawnBudget.recount(serverInstance);
+        }
+    }
+
+    /**
+     * Publie une nouvelle table de zones (thread serveur) et réconcilie les sessions en cours
+     * (voir {@link SessionEngine#reconcile}).
+     *
+     * @param zones La nouvelle table.
+     * @return Un résumé de la réconciliation.
+     */
+    public static String reloadZones(ZoneTable table) {
+        ZoneTable previous = zones;
+        setZones(table);
+        ChunkPrefetcher.releaseZoneSpawns(previous);
+        ChunkPrefetcher.holdZoneSpawns(serverInstance, table);
+        return engine.reconcile(previous);
     }
 
     public static boolean isInSafariZone(ServerPlayerEntity player, SafariZoneData zone) {
         BlockPos pos = player.getBlockPos();
-        return pos.getX() >= zone.bounds.minX && pos.getX() <= zone.bounds.maxX &&
-                pos.getY() >= zone.bounds.minY && pos.getY() <= zone.bounds.maxY &&
-                pos.getZ() >= zone.bounds.minZ && pos.getZ() <= zone.bounds.maxZ;
+        RegistryKey<World> world = player.getWorld().getRegistryKey();
+        for (SafariZoneData.Instance instance : zone.instances) {
+            if (instance.worldKey == world && instance.bounds.contains(pos.getX(), pos.getY(), pos.getZ())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Retourne les zones (éventuellement superposées) qui contiennent la position du joueur.
+     *
+     * @param player Le joueur.
+     * @return Les identifiants des zones, vide si le joueur n'est dans aucune zone.
+     */
+    public static IntList findZones(ServerPlayerEntity player) {
+        BlockPos pos = player.getBlockPos();
+        return zones.index().zonesAt(player.getWorld().getRegistryKey().getValue(), pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    public static int activeSessions(int zoneId) {
+        return engine.activeSessions(zoneId);
+    }
+
+    public static int activeSessions(int zoneId, int instance) {
+        return engine.activeSessions(zoneId, instance);
+    }
+
+    public static int scheduledTimers() {
+        return engine.scheduledTimers();
+    }
+
+    public static int queuedExits() {
+        return engine.queuedWork();
+    }
+
+    public static ZoneTable getZones() {
+        return zones;
     }
 
-    public static Map<UUID, PlayerSafariState> getPlayerStates() {
-        return playerStates;
+    public static SessionView getPlayerStates() {
+        return engine.states();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.SpawnReason;
+import net.minecraft.entity.Tameable;
+import net.minecraft.entity.mob.MobEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.world.World;
+
+/**
+ * Budget d'apparition des créatures sauvages par zone.
+ * <p>
+ * Le nombre de créatures de chaque zone est tenu à jour à l'ajout et au retrait des entités du monde (apparition,
+ * chargement ou déchargement de chunk, mort) : aucun parcours du monde, sauf à la publication d'une nouvelle table
+ * de zones ({@link #recount}). Les créatures des dimensions qui ont des zones sont suivies : chaque seconde, celles
+ * qui ont changé de zone (ou en sont sorties) sont réattribuées.
+ * <p>
+ * Seuls le générateur naturel et les générateurs des mods (Cobblemon) sont limités, d'après la raison d'apparition
+ * retenue par {@code MobEntityMixin} : une telle apparition dans une zone dont le budget est atteint est refusée
+ * ({@code ServerWorld#spawnEntity}) et le générateur réessaie à son prochain cycle. Les créatures des joueurs (œuf,
+ * commande, élevage) et des spawners apparaissent toujours, et comptent. Toutes les méthodes s'exécutent sur le
+ * thread serveur.
+ */
+public class SpawnBudget {
+    private static final int REATTRIBUTE_TICKS = 20;
+
+    private static final SpawnCounts counts = new SpawnCounts();
+    // Créatures sauvages des dimensions qui ont des zones, dont les déplacements sont suivis
+    private static final Int2ObjectOpenHashMap<MobEntity> tracked = new Int2ObjectOpenHashMap<>();
+    private static int tickCounter;
+
+    /* Raison d'apparition d'une créature, retenue par MobEntityMixin ; null si elle n'a pas été initialisée */
+    public interface SpawnOrigin {
+        SpawnReason safarizone$getSpawnReason();
+    }
+
+    public static void onEntityLoad(Entity entity, ServerWorld world) {
+        if (!isWild(entity) || !SafariZoneManager.getZones().index().covers(world.getRegistryKey().getValue())) return;
+
+        tracked.put(entity.getId(), (MobEntity) entity);
+        counts.add(entity.getId(), zoneAt(world, entity));
+    }
+
+    public static void onEntityUnload(Entity entity, ServerWorld world) {
+        if (tracked.remove(entity.getId()) != null) {
+            counts.remove(entity.getId());
+        }
+    }
+
+    /* Une créature compte dans la zone où elle se trouve : sortie, entrée dans une autre zone ou apprivoisée */
+    public static void tick(MinecraftServer server) {
+        if (++tickCounter % REATTRIBUTE_TICKS != 0 || tracked.isEmpty()) return;
+
+        for (MobEntity entity : tracked.values()) {
+            counts.move(entity.getId(), isWild(entity) ? zoneAt(entity.getWorld(), entity) : SpawnCounts.NO_ZONE);
+        }
+    }
+
+    /**
+     * Vérifie l'ajout d'une entité au monde (mixin de {@code ServerWorld#spawnEntity}).
+     *
+     * @param world  Le monde.
+     * @param entity L'entité, sur le point d'apparaître.
+     * @return false si l'entité est une créature sauvage d'un générateur limité et que sa zone a atteint son budget.
+     */
+    public static boolean allowSpawn(ServerWorld world, Entity entity) {
+        if (!isWild(entity)) return true;
+
+        int zoneId = zoneAt(world, entity);
+        if (zoneId == SpawnCounts.NO_ZONE) return true;
+
+        SafariZoneData zone = SafariZoneManager.getZones().get(zoneId);
+        int budget = zone != null && zone.spawnLimit.isLimited()
+                ? zone.spawnLimit.budget(SafariZoneManager.activeSessions(zoneId)) : -1;
+        SpawnReason reason = entity instanceof SpawnOrigin origin ? origin.safarizone$getSpawnReason() : null;
+        if (counts.allows(reason, EntityType.getId(entity.getType()).getNamespace(), zoneId, budget)) {
+            return true;
+        }
+        SafariMetrics.recordSpawnRejected(zoneId);
+        return false;
+    }
+
+    /**
+     * @return Le nombre de créatures sauvages comptées dans la zone.
+     */
+    public static int count(int zoneId) {
+        return counts.count(zoneId);
+    }
+
+    /**
+     * Recompte les créatures de chaque zone (nouvelle table de zones publiée) : des limites déplacées, ajoutées
+     * ou retirées changent la zone de créatures déjà présentes.
+     *
+     * @param server Le serveur.
+     */
+    public static void recount(MinecraftServer server) {
+        clear();
+        for (ServerWorld world : server.getWorlds()) {
+            for (Entity entity : world.iterateEntities()) {
+                onEntityLoad(entity, world);
+            }
+        }
+    }
+
+    /* Arrêt du serveur : les entités des mondes fermés ne seront pas toutes déchargées une à une */
+    public static void clear() {
+        tracked.clear();
+        counts.clear();
+        tickCounter = 0;
+    }
+
+    private static int zoneAt(World world, Entity entity) {
+        return SafariZoneManager.getZones().index()
+                .firstZoneAt(world.getRegistryKey().getValue(), entity.getBlockX(), entity.getBlockY(), entity.getBlockZ());
+    }
+
+    /* Les compagnons des joueurs (créature apprivoisée, Pokémon envoyé) ne sont ni comptés ni bloqués */
+    private static boolean isWild(Entity entity) {
+        return entity instanceof MobEntity && !(entity instanceof Tameable tameable && tameable.getOwnerUuid() != null);
+    }
+}
@@ -0,0 +1,84 @@
+package com.floye.safarizone.util;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.minecraft.entity.SpawnReason;
+
+/**
+ * Compte des créatures sauvages par zone et décision d'apparition, sans accès au monde (voir {@link SpawnBudget}).
+ * <p>
+ * Chaque créature suivie est attribuée à la zone où elle se trouve, ou à aucune ({@link #NO_ZONE}), et change de
+ * zone avec ses déplacements ({@link #move}). Utilisé sur le thread serveur uniquement.
+ */
+final class SpawnCounts {
+    static final int NO_ZONE = -1;
+    // Espace de noms des entités vanilla : sans raison d'apparition, elles naissent d'un élevage ou d'une conversion
+    private static final String VANILLA_NAMESPACE = "minecraft";
+
+    // Identifiant d'entité (unique dans la JVM) -> zone où elle est comptée
+    private final Int2IntOpenHashMap zoneByEntity = new Int2IntOpenHashMap();
+    private final Int2IntOpenHashMap counts = new Int2IntOpenHashMap();
+
+    SpawnCounts() {
+        zoneByEntity.defaultReturnValue(NO_ZONE);
+    }
+
+    /**
+     * Indique si une apparition est soumise au budget de sa zone : générateur naturel, et générateurs des mods
+     * (Cobblemon) dont les créatures arrivent sans raison vanilla. Œufs, commandes, seaux, spawners et élevage
+     * ne sont jamais bloqués.
+     *
+     * @param reason    La raison retenue à l'initialisation de la créature, null si elle n'a pas été initialisée.
+     * @param namespace L'espace de noms du type d'entité.
+     */
+    static boolean isLimited(SpawnReason reason, String namespace) {
+        if (reason == null) {
+            return !VANILLA_NAMESPACE.equals(namespace);
+        }
+        return reason == SpawnReason.NATURAL || reason == SpawnReason.CHUNK_GENERATION;
+    }
+
+    /**
+     * @param reason    La raison d'apparition (voir {@link #isLimited}).
+     * @param namespace L'espace de noms du type d'entité.
+     * @param zoneId    La zone de l'apparition, {@link #NO_ZONE} hors des zones.
+     * @param budget    Le budget de la zone, négatif si elle n'est pas limitée.
+     * @return false si l'apparition est limitée et que la zone a atteint son budget.
+     */
+    boolean allows(SpawnReason reason, String namespace, int zoneId, int budget) {
+        return zoneId == NO_ZONE || budget < 0 || !isLimited(reason, namespace) || counts.get(zoneId) < budget;
+    }
+
+    /* Créature chargée ou apparue ; ajouter une créature déjà suivie revient à la déplacer */
+    void add(int entityId, int zoneId) {
+        move(entityId, zoneId);
+    }
+
+    /* La créature est maintenant dans zoneId : décomptée de sa zone précédente, comptée dans la nouvelle */
+    void move(int entityId, int zoneId) {
+        int previous = zoneByEntity.put(entityId, zoneId);
+        if (previous == zoneId) return;
+
+        if (previous != NO_ZONE) {
+            counts.addTo(previous, -1);
+        }
+        if (zoneId != NO_ZONE) {
+            counts.addTo(zoneId, 1);
+        }
+    }
+
+    void remove(int entityId) {
+        int previous = zoneByEntity.remove(entityId);
+        if (previous != NO_ZONE) {
+            counts.addTo(previous, -1);
+        }
+    }
+
+    int count(int zoneId) {
+        return counts.get(zoneId);
+    }
+
+    void clear() {
+        zoneByEntity.clear();
+        counts.clear();
+    }
+}
@@ -0,0 +1,190 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.session.SessionView;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.text.Text;
+
+import java.util.*;
+
+/**
+ * Contrôle d'admission des zones : capacité maximale et débit d'entrée par seconde.
+ * <p>
+ * Les demandes qui dépassent l'une des limites rejoignent une file FIFO par zone. La file est traitée à
+ * chaque seconde et dès qu'une place se libère. Toutes les méthodes s'exécutent sur le thread serveur
+ * (ou pendant l'initialisation, avant son démarrage).
+ */
+public class ZoneAdmission {
+    private static final int TICKS_PER_SECOND = 20;
+
+    private static final Map<Integer, Gate> gates = new HashMap<>();
+    private static int tickCounter;
+
+    public static void configure(ZoneTable zones) {
+        gates.keySet().removeIf(zoneId -> !zones.contains(zoneId));
+        for (SafariZoneData zone : zones.zones()) {
+            gates.computeIfAbsent(zone.id, id -> new Gate()).configure(zone);
+        }
+    }
+
+    public static void rebuildOccupancy(SessionView sessions) {
+        gates.forEach((zoneId, gate) -> gate.occupancy = sessions.countInZone(zoneId));
+    }
+
+    /* Arrêt du serveur : files et places occupées sont abandonnées, les portes restent configurées */
+    public static void reset() {
+        for (Gate gate : gates.values()) {
+            gate.queue.clear();
+            gate.occupancy = 0;
+        }
+        tickCounter = 0;
+    }
+
+    /* Session existante chargée à la connexion de son joueur : elle occupe une place sans passer par la file */
+    public static void occupy(int zoneId) {
+        Gate gate = gates.get(zoneId);
+        if (gate != null) {
+            gate.occupancy++;
+        }
+    }
+
+    /**
+     * Réserve une place pour le joueur si la zone l'autorise, sinon le place dans la file d'attente.
+     *
+     * @param player Le joueur.
+     * @param zoneId L'identifiant de la zone.
+     * @return true si une place est réservée et l'entrée peut commencer, false si le joueur attend.
+     */
+    public static boolean tryAdmit(ServerPlayerEntity player, int zoneId) {
+        Gate gate = gates.get(zoneId);
+        if (gate == null) return true;
+
+        // Personne ne double la file : une place libre revient d'abord aux joueurs déjà en attente
+        if (gate.queue.isEmpty() && gate.tryReserve(System.nanoTime())) {
+            return true;
+        }
+
+        gate.queue.add(player.getUuid());
+        player.sendMessage(Text.literal("Zone " + zoneId + " complète, vous êtes en position " +
+                gate.positionOf(player.getUuid()) + " dans la file d'attente"), false);
+        return false;
+    }
+
+    /**
+     * Libère une place (fin de session ou entrée avortée) et admet immédiatement le joueur suivant.
+     *
+     * @param zoneId L'identifiant de la zone.
+     */
+    public static void release(int zoneId) {
+        Gate gate = gates.get(zoneId);
+        if (gate == null) return;
+
+        gate.occupancy = Math.max(0, gate.occupancy - 1);
+        MinecraftServer server = SafariZoneManager.getServerInstance();
+        if (server != null && !gate.queue.isEmpty()) {
+            pump(server, zoneId, gate);
+        }
+    }
+
+    /* Déconnexion ou entrée dans une zone : le joueur quitte toutes les files où il attendait */
+    public static void dequeue(UUID playerId) {
+        gates.values().forEach(gate -> gate.queue.remove(playerId));
+    }
+
+    public static int occupancy(int zoneId) {
+        Gate gate = gates.get(zoneId);
+        return gate != null ? gate.occupancy : 0;
+    }
+
+    public static int queueLength(int zoneId) {
+        Gate gate = gates.get(zoneId);
+        return gate != null ? gate.queue.size() : 0;
+    }
+
+    public static void tick(MinecraftServer server) {
+        if (++tickCounter % TICKS_PER_SECOND != 0) return;
+
+        long start = System.nanoTime();
+        gates.forEach((zoneId, gate) -> {
+            if (gate.queue.isEmpty()) return;
+            pump(server, zoneId, gate);
+            notifyPositions(server, zoneId, gate);
+        });
+        SafariMetrics.ADMISSION_TICK.recordSince(start);
+    }
+
+    /* Ré-entrant : une entrée avortée pendant le traitement libère sa place et relance ce même traitement */
+    private static void pump(MinecraftServer server, int zoneId, Gate gate) {
+        long now = System.nanoTime();
+        while (!gate.queue.isEmpty()) {
+            UUID playerId = gate.queue.iterator().next();
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
+            if (player == null) {
+                gate.queue.remove(playerId);
+                continue;
+            }
+            if (!gate.tryReserve(now)) break;
+
+            gate.queue.remove(playerId);
+            player.sendMessage(Text.literal("Votre tour est arrivé pour la zone " + zoneId), false);
+            SafariZoneManager.startEntry(player, zoneId);
+        }
+    }
+
+    private static void notifyPositions(MinecraftServer server, int zoneId, Gate gate) {
+        int position = 1;
+        for (UUID playerId : gate.queue) {
+            ServerPlayerEntity player = server.getPlayerManager().getPlayer(playerId);
+            if (player != null) {
+                player.sendMessage(Text.literal("File d'attente zone " + zoneId + " : position " + position + "/" + gate.queue.size()), true);
+            }
+            position++;
+        }
+    }
+
+    private static class Gate {
+        private final LinkedHashSet<UUID> queue = new LinkedHashSet<>();
+        private int capacity;
+        private double entriesPerSecond;
+        private double tokens = Double.MAX_VALUE;
+        private long lastRefillNanos = System.nanoTime();
+        private int occupancy;
+
+        private void configure(SafariZoneData zone) {
+            this.capacity = zone.capacity;
+            this.entriesPerSecond = zone.maxEntriesPerSecond;
+            this.tokens = Math.min(tokens, burst());
+        }
+
+        /* Un débit inférieur à 1 (0.5 : une entrée toutes les 2 s) doit pouvoir atteindre un jeton entier */
+        private double burst() {
+            return Math.max(1, entriesPerSecond);
+        }
+
+        /* Seau à jetons : au plus entriesPerSecond entrées par seconde, rafale bornée au même nombre (au moins une) */
+        private boolean tryReserve(long nowNanos) {
+            if (capacity > 0 && occupancy >= capacity) return false;
+
+            if (entriesPerSecond > 0) {
+                double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+                tokens = Math.min(burst(), tokens + elapsedSeconds * entriesPerSecond);
+                lastRefillNanos = nowNanos;
+                if (tokens < 1) return false;
+                tokens -= 1;
+            }
+
+            occupancy++;
+            return true;
+        }
+
+        private int positionOf(UUID playerId) {
+            int position = 1;
+            for (UUID queued : queue) {
+                if (queued.equals(playerId)) return position;
+                position++;
+            }
+            return position;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.ChunkPos;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index spatial des zones, construit avec chaque {@link ZoneTable}.
+ * <p>
+ * Par dimension, chaque colonne de chunk couverte par une instance de zone référence les emplacements
+ * (instance de zone et ses limites) qui la recoupent. Une requête ne teste donc que les quelques emplacements de
+ * la colonne du joueur au lieu de parcourir toutes les zones. Les zones qui se chevauchent sont toutes retournées.
+ */
+public final class ZoneIndex {
+    public static final ZoneIndex EMPTY = new ZoneIndex(Map.of(), new int[0], new SafariZoneData.Bounds[0]);
+    // Colonnes de chunk indexées par instance de zone au plus (soit 2048 x 2048 blocs) : la construction et la
+    // mémoire de l'index restent bornées quelle que soit la configuration
+    public static final long MAX_ZONE_CHUNKS = 128 * 128;
+
+    private final Map<Identifier, Long2ObjectMap<int[]>> cellsByDimension;
+    // Emplacements indexés : zone et limites de chaque instance
+    private final int[] areaZone;
+    private final SafariZoneData.Bounds[] areaBounds;
+
+    private ZoneIndex(Map<Identifier, Long2ObjectMap<int[]>> cellsByDimension, int[] areaZone, SafariZoneData.Bounds[] areaBounds) {
+        this.cellsByDimension = cellsByDimension;
+        this.areaZone = areaZone;
+        this.areaBounds = areaBounds;
+    }
+
+    /**
+     * @return Le nombre de colonnes de chunk recoupées par des limites de zone.
+     */
+    public static long chunkArea(int minX, int minZ, int maxX, int maxZ) {
+        return ((long) (maxX >> 4) - (minX >> 4) + 1) * ((long) (maxZ >> 4) - (minZ >> 4) + 1);
+    }
+
+    /**
+     * @param zones Les zones, dont chaque instance recoupe au plus {@link #MAX_ZONE_CHUNKS} colonnes de chunk.
+     * @throws IllegalArgumentException si une instance de zone est trop étendue.
+     */
+    public static ZoneIndex build(Collection<SafariZoneData> zones) {
+        Map<Identifier, Long2ObjectMap<IntList>> building = new HashMap<>();
+        IntList areaZone = new IntArrayList(zones.size());
+        List<SafariZoneData.Bounds> areaBounds = new ArrayList<>(zones.size());
+        for (SafariZoneData zone : zones) {
+            for (SafariZoneData.Instance instance : zone.instances) {
+                if (instance.worldKey == null) continue;
+                Identifier dimension = instance.worldKey.getValue();
+                SafariZoneData.Bounds bounds = instance.bounds;
+                if (chunkArea(bounds.minX, bounds.minZ, bounds.maxX, bounds.maxZ) > MAX_ZONE_CHUNKS) {
+                    throw new IllegalArgumentException("Zone " + zone.id + " : plus de " + MAX_ZONE_CHUNKS + " chunks");
+                }
+
+                int area = areaZone.size();
+                areaZone.add(zone.id);
+                areaBounds.add(instance.bounds);
+                Long2ObjectMap<IntList> cells = building.computeIfAbsent(dimension, key -> new Long2ObjectOpenHashMap<>());
+                for (int chunkX = bounds.minX >> 4; chunkX <= bounds.maxX >> 4; chunkX++) {
+                    for (int chunkZ = bounds.minZ >> 4; chunkZ <= bounds.maxZ >> 4; chunkZ++) {
+                        cells.computeIfAbsent(ChunkPos.toLong(chunkX, chunkZ), key -> new IntArrayList(1)).add(area);
+                    }
+                }
+            }
+        }
+
+        Map<Identifier, Long2ObjectMap<int[]>> cellsByDimension = new HashMap<>();
+        building.forEach((dimension, cells) -> {
+            Long2ObjectMap<int[]> compact = new Long2ObjectOpenHashMap<>(cells.size());
+            for (Long2ObjectMap.Entry<IntList> cell : Long2ObjectMaps.fastIterable(cells)) {
+                compact.put(cell.getLongKey(), cell.getValue().toIntArray());
+            }
+            cellsByDimension.put(dimension, compact);
+        });
+        return new ZoneIndex(cellsByDimension, areaZone.toIntArray(), areaBounds.toArray(SafariZoneData.Bounds[]::new));
+    }
+
+    /**
+     * Retourne les zones contenant une position, dans l'ordre de déclaration de la colonne.
+     *
+     * @param dimension L'identifiant de la dimension.
+     * @param x         Coordonnée X du bloc.
+     * @param y         Coordonnée Y du bloc.
+     * @param z         Coordonnée Z du bloc.
+     * @return Les identifiants des zones qui contiennent la position (vide si aucune).
+     */
+    public IntList zonesAt(Identifier dimension, int x, int y, int z) {
+        int[] candidates = candidates(dimension, x, z);
+        if (candidates == null) return IntLists.emptyList();
+
+        IntList result = null;
+        for (int area : candidates) {
+            if (areaBounds[area].contains(x, y, z)) {
+                if (result == null) result = new IntArrayList(candidates.length);
+                // Deux instances d'une même zone peuvent se recouper
+                if (!result.contains(areaZone[area])) result.add(areaZone[area]);
+            }
+        }
+        return result != null ? result : IntLists.emptyList();
+    }
+
+    /**
+     * Retourne la première zone contenant une position, sans allocation.
+     *
+     * @return L'identifiant de la zone, ou -1 si aucune zone ne contient la position.
+     */
+    public int firstZoneAt(Identifier dimension, int x, int y, int z) {
+        int[] candidates = candidates(dimension, x, z);
+        if (candidates == null) return -1;
+
+        for (int area : candidates) {
+            if (areaBounds[area].contains(x, y, z)) return areaZone[area];
+        }
+        return -1;
+    }
+
+    /**
+     * @return true si au moins une instance de zone se trouve dans la dimension.
+     */
+    public boolean covers(Identifier dimension) {
+        return cellsByDimension.containsKey(dimension);
+    }
+
+    private int[] candidates(Identifier dimension, int x, int z) {
+        Long2ObjectMap<int[]> cells = cellsByDimension.get(dimension);
+        return cells != null ? cells.get(ChunkPos.toLong(x >> 4, z >> 4)) : null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.floye.safarizone.util;
+
+import com.floye.safarizone.session.ZoneCatalog;
+import com.floye.safarizone.util.SafariZoneManager.SafariZoneData;
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Table immuable des zones compilée au chargement de la configuration.
+ * <p>
+ * L'accès par identifiant est un simple index de tableau. Chaque instance de zone porte sa clé de monde déjà
+ * résolue et une référence vers son {@link ServerWorld}, mise à jour au chargement et au déchargement des mondes.
+ */
+public final class ZoneTable implements ZoneCatalog {
+    public static final ZoneTable EMPTY = new ZoneTable(new SafariZoneData[0], List.of());
+    // La table est indexée par identifiant : un identifiant borné borne sa taille
+    public static final int MAX_ZONE_ID = 4096;
+
+    private final SafariZoneData[] byId;
+    private final List<SafariZoneData> zones;
+    // Publié avec la table : un lecteur ne voit jamais une table et un index de deux configurations différentes
+    private final ZoneIndex index;
+
+    private ZoneTable(SafariZoneData[] byId, List<SafariZoneData> zones) {
+        this.byId = byId;
+        this.zones = zones;
+        this.index = zones.isEmpty() ? ZoneIndex.EMPTY : ZoneIndex.build(zones);
+    }
+
+    /**
+     * Compile une table à partir des zones chargées.
+     *
+     * @param zones Les zones, dont les identifiants sont strictement positifs, uniques et au plus {@link #MAX_ZONE_ID}.
+     * @return La table compilée.
+     * @throws IllegalArgumentException si un identifiant est négatif, trop grand ou dupliqué.
+     */
+    public static ZoneTable compile(Collection<SafariZoneData> zones) {
+        int maxId = zones.stream().mapToInt(zone -> zone.id).max().orElse(0);
+        if (maxId > MAX_ZONE_ID) {
+            throw new IllegalArgumentException("Identifiant de zone supérieur à " + MAX_ZONE_ID + ": " + maxId);
+        }
+        SafariZoneData[] byId = new SafariZoneData[maxId + 1];
+        for (SafariZoneData zone : zones) {
+            if (zone.id < 0) {
+                throw new IllegalArgumentException("Identifiant de zone négatif: " + zone.id);
+            }
+            if (byId[zone.id] != null) {
+                throw new IllegalArgumentException("Identifiant de zone dupliqué: " + zone.id);
+            }
+            byId[zone.id] = zone;
+        }
+
+        SafariZoneData[] ordered = Arrays.stream(byId).filter(Objects::nonNull).toArray(SafariZoneData[]::new);
+        return new ZoneTable(byId, Collections.unmodifiableList(Arrays.asList(ordered)));
+    }
+
+    @Override
+    public SafariZoneData get(int zoneId) {
+        return zoneId >= 0 && zoneId < byId.length ? byId[zoneId] : null;
+    }
+
+    @Override
+    public boolean contains(int zoneId) {
+        return get(zoneId) != null;
+    }
+
+    @Override
+    public List<SafariZoneData> zones() {
+        return zones;
+    }
+
+    @Override
+    public int size() {
+        return zones.size();
+    }
+
+    public ZoneIndex index() {
+        return index;
+    }
+
+    /**
+     * Met à jour la référence de monde des instances de zone situées dans un monde qui vient d'être chargé.
+     *
+     * @param world Le monde chargé.
+     */
+    public void onWorldLoad(ServerWorld world) {
+        for (SafariZoneData zone : zones) {
+            for (SafariZoneData.Instance instance : zone.instances) {
+                if (instance.worldKey == world.getRegistryKey()) instance.world = world;
+            }
+        }
+    }
+
+    public void onWorldUnload(ServerWorld world) {
+        for (SafariZoneData zone : zones) {
+            for (SafariZoneData.Instance instance : zone.instances) {
+                if (instance.world == world) instance.world = null;
+            }
+        }
+    }
+}
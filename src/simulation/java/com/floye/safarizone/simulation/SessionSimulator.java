@@ -0,0 +1,328 @@
+package com.floye.safarizone.simulation;
+
+import com.floye.safarizone.config.JsonSessionStorage;
+import com.floye.safarizone.session.*;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulateur headless du moteur de sessions : des dizaines de milliers de joueurs virtuels se connectent, entrent
+ * en zone, se déconnectent et reviennent selon des durées aléatoires, sur une horloge virtuelle découpée en ticks
+ * de 50 ms comme le serveur.
+ * <p>
+ * Rapporte le débit (tâches du thread principal et transitions par seconde réelle), le retard des expirations
+ * par rapport à leur échéance et le coût d'encodage de la persistance (journal et snapshots).
+ * <p>
+ * Usage : {@code ./gradlew simulate -PsimArgs="--players=20000 --zones=50 --hours=4"}
+ */
+public class SessionSimulator {
+    private static final long TICK_MILLIS = 50;
+    // Budget par défaut du serveur pour les sorties de zone (ConfigLoader)
+    private static final long TICK_BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(2000);
+    private static final long COMPACTION_THRESHOLD_BYTES = 512 * 1024;
+    private static final long MEAN_ONLINE_MILLIS = TimeUnit.MINUTES.toMillis(45);
+    private static final long MEAN_OFFLINE_MILLIS = TimeUnit.MINUTES.toMillis(20);
+    private static final long MEAN_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(3);
+    private static final double EARLY_EXIT_PROBABILITY = 0.05;
+    private static final String OVERWORLD = DimensionIds.intern("minecraft:overworld");
+    private static final String SAFARI_DIMENSION = DimensionIds.intern("safari:zone");
+
+    private final Options options;
+    private final Random random;
+    private final VirtualClock clock = new VirtualClock(0);
+    private final ArrayDeque<Runnable> mainQueue = new ArrayDeque<>();
+    private final Map<UUID, VirtualPlayer> players = new HashMap<>();
+    private final VirtualZones zones;
+    private final SessionEngine engine;
+
+    // Statistiques
+    private long mainTasks;
+    private long entries;
+    private long expiries;
+    private long earlyExits;
+    private long refunds;
+    private long journalLines;
+    private long journalBytes;
+    private long journalNanos;
+    private long bytesSinceSnapshot;
+    private long sequence;
+    private long snapshots;
+    private long snapshotBytes;
+    private long snapshotNanos;
+    private final LongArrayList expiryLateness = new LongArrayList();
+
+    public SessionSimulator(Options options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.zones = buildZones(options.zones, options.sessionMinutes);
+
+        VirtualPorts ports = new VirtualPorts();
+        this.engine = new SessionEngine(clock, mainQueue::add, ports, ports, ports, ports, this::journal, ports);
+        engine.setZones(zones);
+    }
+
+    public static void main(String[] args) {
+        Options options = Options.parse(args);
+        SessionSimulator simulator = new SessionSimulator(options);
+        long start = System.nanoTime();
+        simulator.run();
+        simulator.report(System.nanoTime() - start);
+    }
+
+    private static VirtualZones buildZones(int count, int sessionMinutes) {
+        List<VirtualZone> zones = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int originX = (i % 32) * 256;
+            int originZ = (i / 32) * 256;
+            zones.add(new VirtualZone(i + 1, new Position(originX + 64, 70, originZ + 64), sessionMinutes, 100.0));
+        }
+        return new VirtualZones(List.copyOf(zones));
+    }
+
+    /* Arrivées étalées sur la première moitié de la simulation, puis alternance connexion / déconnexion */
+    private void run() {
+        long durationMillis = TimeUnit.HOURS.toMillis(options.hours);
+        for (int i = 0; i < options.players; i++) {
+            VirtualPlayer player = new VirtualPlayer(new UUID(0x5AFA_0000_0000_0000L, i));
+            players.put(player.id, player);
+            clock.schedule(() -> mainQueue.add(() -> join(player)), (long) (random.nextDouble() * durationMillis / 2));
+        }
+
+        for (long now = 0; now <= durationMillis; now += TICK_MILLIS) {
+            clock.advanceTo(now);
+            Runnable task;
+            while ((task = mainQueue.poll()) != null) {
+                task.run();
+                mainTasks++;
+            }
+            mainTasks += engine.runQueuedWork(TICK_BUDGET_NANOS);
+        }
+    }
+
+    private void join(VirtualPlayer player) {
+        player.online = true;
+        player.epoch++;
+        engine.reconnect(player.id);
+        int epoch = player.epoch;
+        clock.schedule(() -> mainQueue.add(() -> leave(player, epoch)), exponential(MEAN_ONLINE_MILLIS));
+        scheduleIdleAction(player, epoch);
+    }
+
+    private void leave(VirtualPlayer player, int epoch) {
+        if (player.epoch != epoch) return;
+
+        player.online = false;
+        player.epoch++;
+        engine.logout(player.id);
+        clock.schedule(() -> mainQueue.add(() -> join(player)), exponential(MEAN_OFFLINE_MILLIS));
+    }
+
+    /* Un joueur connecté sans session demande régulièrement l'entrée dans une zone au hasard */
+    private void scheduleIdleAction(VirtualPlayer player, int epoch) {
+        clock.schedule(() -> mainQueue.add(() -> {
+            if (player.epoch != epoch) return;
+
+            if (engine.hasSession(player.id)) {
+                if (random.nextDouble() < EARLY_EXIT_PROBABILITY) {
+                    engine.endSession(player.id);
+                }
+            } else if (!engine.isEntering(player.id)) {
+                engine.enter(player.id, 1 + random.nextInt(zones.size()));
+            }
+            scheduleIdleAction(player, epoch);
+        }), exponential(MEAN_IDLE_MILLIS));
+    }
+
+    private long exponential(long meanMillis) {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanMillis);
+    }
+
+    /* Journal : même encodage que JsonSessionStorage, compaction au même seuil */
+    private void journal(SessionEvent event, UUID playerId, PlayerSafariState state) {
+        long start = System.nanoTime();
+        byte[] line = JsonSessionStorage.encodeJournalLine(++sequence, event, playerId, state);
+        journalNanos += System.nanoTime() - start;
+        journalLines++;
+        journalBytes += line.length;
+        bytesSinceSnapshot += line.length;
+
+        if (bytesSinceSnapshot > COMPACTION_THRESHOLD_BYTES) {
+            start = System.nanoTime();
+            byte[] snapshot = JsonSessionStorage.encodeSnapshot(engine.states().snapshot(), sequence);
+            snapshotNanos += System.nanoTime() - start;
+            snapshots++;
+            snapshotBytes += snapshot.length;
+            bytesSinceSnapshot = 0;
+        }
+    }
+
+    private void report(long wallNanos) {
+        double wallSeconds = wallNanos / 1e9;
+        long[] lateness = expiryLateness.toLongArray();
+        Arrays.sort(lateness);
+
+        System.out.printf(Locale.ROOT, "Joueurs : %d, zones : %d, durée simulée : %d h, temps réel : %.2f s%n",
+                options.players, options.zones, options.hours, wallSeconds);
+        System.out.printf(Locale.ROOT, "Sessions : %d entrées, %d expirations, %d sorties anticipées, %d remboursements, %d actives en fin%n",
+                entries, expiries, earlyExits, refunds, engine.states().size());
+        System.out.printf(Locale.ROOT, "Débit : %.0f tâches thread principal/s, %.0f transitions journalisées/s%n",
+                mainTasks / wallSeconds, journalLines / wallSeconds);
+        System.out.printf(Locale.ROOT, "Retard d'expiration : p50 %d ms, p99 %d ms, max %d ms (%d mesures)%n",
+                percentile(lateness, 0.5), percentile(lateness, 0.99),
+                lateness.length > 0 ? lateness[lateness.length - 1] : 0, lateness.length);
+        System.out.printf(Locale.ROOT, "Persistance : %d lignes, %.1f Mo, %.2f µs/ligne ; %d snapshots, %.1f Mo, %.2f ms/snapshot%n",
+                journalLines, journalBytes / 1e6, journalLines > 0 ? journalNanos / 1e3 / journalLines : 0,
+                snapshots, snapshotBytes / 1e6, snapshots > 0 ? snapshotNanos / 1e6 / snapshots : 0);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static class VirtualPlayer {
+        private final UUID id;
+        private boolean online;
+        // Invalide les actions planifiées avant une déconnexion ou une reconnexion
+        private int epoch;
+        private Position position = Position.ORIGIN;
+        private String dimension = OVERWORLD;
+
+        private VirtualPlayer(UUID id) {
+            this.id = id;
+        }
+    }
+
+    /* Joueurs virtuels : chargement instantané, téléportation et paiement toujours réussis */
+    private class VirtualPorts implements PlayerDirectory, Teleporter, Messenger, Payments, SessionListener {
+        @Override
+        public boolean isOnline(UUID playerId) {
+            VirtualPlayer player = players.get(playerId);
+            return player != null && player.online;
+        }
+
+        @Override
+        public Position position(UUID playerId) {
+            return players.get(playerId).position;
+        }
+
+        @Override
+        public String dimension(UUID playerId) {
+            return players.get(playerId).dimension;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepareZone(int zoneId, int instance) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean teleportToZone(UUID playerId, int zoneId, int instance) {
+            VirtualPlayer player = players.get(playerId);
+            player.position = zones.get(zoneId).spawn();
+            player.dimension = SAFARI_DIMENSION;
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Void> prepareOrigin(PlayerSafariState state) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean teleportToOrigin(UUID playerId, PlayerSafariState state) {
+            long lateness = clock.currentTimeMillis() - state.expiryTimeMillis;
+            if (lateness >= 0) {
+                expiries++;
+                expiryLateness.add(lateness);
+            } else {
+                earlyExits++;
+            }
+
+            VirtualPlayer player = players.get(playerId);
+            player.position = state.originalPosition;
+            player.dimension = state.originalDimensionId;
+            return true;
+        }
+
+        @Override
+        public void send(UUID playerId, String message, boolean actionBar) {
+        }
+
+        @Override
+        public CompletableFuture<Boolean> charge(Payment payment) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean refund(Payment payment) {
+            return true;
+        }
+
+        @Override
+        public void onSessionStarted(UUID playerId, int zoneId, int instance) {
+            entries++;
+        }
+
+        @Override
+        public void onRefund(UUID playerId, int zoneId, double amount) {
+            refunds++;
+        }
+    }
+
+    /* Zones sans copies, toutes dans la même dimension */
+    private record VirtualZone(int id, Position spawn, int durationMinutes, double cost) implements SessionZone {
+        @Override
+        public int instanceCount() {
+            return 1;
+        }
+
+        @Override
+        public String instanceDimension(int instance) {
+            return instance == 0 ? SAFARI_DIMENSION : null;
+        }
+
+        @Override
+        public boolean isEquivalentTo(SessionZone other) {
+            return other instanceof VirtualZone zone && spawn.equals(zone.spawn);
+        }
+    }
+
+    /* Identifiants consécutifs à partir de 1 */
+    private record VirtualZones(List<VirtualZone> zones) implements ZoneCatalog {
+        @Override
+        public VirtualZone get(int zoneId) {
+            return zoneId >= 1 && zoneId <= zones.size() ? zones.get(zoneId - 1) : null;
+        }
+    }
+
+    public static class Options {
+        int players = 20_000;
+        int zones = 50;
+        int hours = 4;
+        int sessionMinutes = 30;
+        long seed = 42;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String[] parts = arg.replaceFirst("^--", "").split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Argument invalide : " + arg);
+                }
+                switch (parts[0]) {
+                    case "players" -> options.players = Integer.parseInt(parts[1]);
+                    case "zones" -> options.zones = Integer.parseInt(parts[1]);
+                    case "hours" -> options.hours = Integer.parseInt(parts[1]);
+                    case "sessionMinutes" -> options.sessionMinutes = Integer.parseInt(parts[1]);
+                    case "seed" -> options.seed = Long.parseLong(parts[1]);
+                    default -> throw new IllegalArgumentException("Option inconnue : " + parts[0]);
+                }
+            }
+            return options;
+        }
+    }
+}
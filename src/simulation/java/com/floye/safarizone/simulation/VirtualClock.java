@@ -0,0 +1,74 @@
+package com.floye.safarizone.simulation;
+
+import com.floye.safarizone.session.SessionClock;
+
+import java.util.PriorityQueue;
+
+/**
+ * Horloge virtuelle : le temps n'avance que sur demande du simulateur, et les échéances dues s'exécutent
+ * alors dans l'ordre chronologique sur le thread appelant.
+ */
+public class VirtualClock implements SessionClock {
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    public VirtualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public Timer schedule(Runnable task, long delayMillis) {
+        ScheduledTask scheduled = new ScheduledTask(now + Math.max(0, delayMillis), sequence++, task);
+        queue.add(scheduled);
+        return () -> scheduled.cancelled = true;
+    }
+
+    /**
+     * Avance jusqu'à un instant en exécutant chaque échéance à son heure exacte.
+     *
+     * @param targetMillis L'instant cible.
+     * @return Le nombre d'échéances exécutées.
+     */
+    public int advanceTo(long targetMillis) {
+        int executed = 0;
+        while (!queue.isEmpty() && queue.peek().dueMillis <= targetMillis) {
+            ScheduledTask task = queue.poll();
+            if (task.cancelled) continue;
+
+            now = Math.max(now, task.dueMillis);
+            task.task.run();
+            executed++;
+        }
+        now = Math.max(now, targetMillis);
+        return executed;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    private static class ScheduledTask implements Comparable<ScheduledTask> {
+        private final long dueMillis;
+        private final long sequence;
+        private final Runnable task;
+        private boolean cancelled;
+
+        private ScheduledTask(long dueMillis, long sequence, Runnable task) {
+            this.dueMillis = dueMillis;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byTime = Long.compare(dueMillis, other.dueMillis);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
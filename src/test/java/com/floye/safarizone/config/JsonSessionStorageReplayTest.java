@@ -0,0 +1,99 @@
+package com.floye.safarizone.config;
+
+import com.floye.safarizone.session.PlayerSafariState;
+import com.floye.safarizone.session.Position;
+import com.floye.safarizone.session.SessionEvent;
+import com.floye.safarizone.session.SessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Relecture du journal JSON après un arrêt brutal pendant une écriture (fin de fichier tronquée). Les fichiers
+ * sont écrits sous {@code config/SafariZone} du dossier de travail des tests.
+ */
+class JsonSessionStorageReplayTest {
+    private final UUID first = UUID.randomUUID();
+    private final UUID second = UUID.randomUUID();
+    private final UUID torn = UUID.randomUUID();
+    private final UUID later = UUID.randomUUID();
+
+    @BeforeEach
+    void clean() throws IOException {
+        Files.deleteIfExists(Path.of(JsonSessionStorage.FILE_NAME));
+        Files.deleteIfExists(Path.of(JsonSessionStorage.JOURNAL_FILE_NAME));
+    }
+
+    private static PlayerSafariState state(int zoneId) {
+        return new PlayerSafariState(new Position(zoneId, 64, -zoneId), "minecraft:overworld", zoneId, 0, 1_000_000L + zoneId);
+    }
+
+    private static void write(UUID playerId, int zoneId) throws IOException {
+        try (JsonSessionStorage storage = new JsonSessionStorage()) {
+            storage.loadAll();
+            storage.write(List.of(new SessionStorage.Change(SessionEvent.ENTER, playerId, state(zoneId))));
+        }
+    }
+
+    private static SessionStore load() throws IOException {
+        try (JsonSessionStorage storage = new JsonSessionStorage()) {
+            return storage.loadAll();
+        }
+    }
+
+    /* Ajoute au journal une entrée complète dont seuls les premiers octets sont écrits */
+    private static void appendTorn(UUID playerId, int keptBytes) throws IOException {
+        byte[] line = JsonSessionStorage.encodeJournalLine(100, SessionEvent.ENTER, playerId, state(9));
+        Files.write(Path.of(JsonSessionStorage.JOURNAL_FILE_NAME), Arrays.copyOf(line, keptBytes), StandardOpenOption.APPEND);
+    }
+
+    @Test
+    void tornEntryIsIgnored() throws IOException {
+        write(first, 1);
+        write(second, 2);
+        appendTorn(torn, 20);
+
+        SessionStore sessions = load();
+        assertEquals(2, sessions.size());
+        assertEquals(1, sessions.get(first).zoneId);
+        assertEquals(2, sessions.get(second).zoneId);
+        assertFalse(sessions.contains(torn));
+    }
+
+    @Test
+    void entriesWrittenAfterTornEntryAreReplayed() throws IOException {
+        write(first, 1);
+        appendTorn(torn, 20);
+        // Redémarrage : le fragment est retiré avant le prochain ajout
+        write(later, 3);
+
+        SessionStore sessions = load();
+        assertTrue(sessions.contains(first));
+        assertFalse(sessions.contains(torn));
+        assertEquals(3, sessions.get(later).zoneId);
+    }
+
+    @Test
+    void completeEntryWithoutNewlineIsKept() throws IOException {
+        write(first, 1);
+        byte[] line = JsonSessionStorage.encodeJournalLine(100, SessionEvent.ENTER, torn, state(9));
+        appendTorn(torn, line.length - 1);
+        write(later, 3);
+
+        SessionStore sessions = load();
+        assertEquals(9, sessions.get(torn).zoneId);
+        assertEquals(3, sessions.get(later).zoneId);
+        assertTrue(sessions.contains(first));
+    }
+}
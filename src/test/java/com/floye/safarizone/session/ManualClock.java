@@ -0,0 +1,52 @@
+package com.floye.safarizone.session;
+
+import java.util.PriorityQueue;
+
+/**
+ * Horloge des tests : le temps n'avance qu'avec {@link #advance}, qui exécute dans l'ordre les tâches arrivées à
+ * échéance, sur le thread du test.
+ */
+final class ManualClock implements SessionClock {
+    private final PriorityQueue<Scheduled> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    ManualClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public Timer schedule(Runnable task, long delayMillis) {
+        Scheduled scheduled = new Scheduled(now + delayMillis, sequence++, task);
+        queue.add(scheduled);
+        return () -> queue.remove(scheduled);
+    }
+
+    void advance(long millis) {
+        long target = now + millis;
+        Scheduled next;
+        while ((next = queue.peek()) != null && next.dueMillis <= target) {
+            queue.poll();
+            now = next.dueMillis;
+            next.task.run();
+        }
+        now = target;
+    }
+
+    int pending() {
+        return queue.size();
+    }
+
+    private record Scheduled(long dueMillis, long sequence, Runnable task) implements Comparable<Scheduled> {
+        @Override
+        public int compareTo(Scheduled other) {
+            int byDue = Long.compare(dueMillis, other.dueMillis);
+            return byDue != 0 ? byDue : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.floye.safarizone.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sortie de zone : une téléportation échouée est retentée avec un délai croissant, sans sortie en double, et un
+ * préchargement échoué n'empêche pas la sortie. Horloge manuelle, thread principal = thread du test.
+ */
+class SessionEngineExitTest {
+    private static final long START_MILLIS = 1_000_000;
+
+    private final UUID player = UUID.randomUUID();
+    private ManualClock clock;
+    private TestPorts ports;
+    private List<SessionEvent> events;
+    private SessionEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock(START_MILLIS);
+        ports = new TestPorts();
+        events = new ArrayList<>();
+        engine = new SessionEngine(clock, Runnable::run, ports, ports, ports, ports,
+                (event, playerId, state) -> events.add(event), ports);
+        engine.setZones(ports);
+
+        SessionStore store = new SessionStore();
+        store.put(player, new PlayerSafariState(new Position(10, 64, 10), "minecraft:overworld", 1, 0, START_MILLIS + 60_000));
+        engine.load(store);
+    }
+
+    @Test
+    void failedTeleportIsRetriedWithBackoff() {
+        ports.teleportResults.add(false);
+        ports.teleportResults.add(false);
+        ports.teleportResults.add(true);
+
+        engine.endSession(player);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(1, ports.teleports);
+        assertTrue(engine.hasSession(player));
+        assertEquals("Erreur téléportation, nouvel essai dans 1s", ports.lastMessage);
+
+        clock.advance(999);
+        assertEquals(0, engine.queuedWork());
+        clock.advance(1);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(2, ports.teleports);
+        assertTrue(engine.hasSession(player));
+        assertEquals("Erreur téléportation, nouvel essai dans 2s", ports.lastMessage);
+
+        clock.advance(2000);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(3, ports.teleports);
+        assertFalse(engine.hasSession(player));
+        assertEquals(List.of(SessionEvent.EXPIRE), events);
+    }
+
+    @Test
+    void exitIsNotDuplicatedWhileRetrying() {
+        ports.teleportResults.add(false);
+        engine.endSession(player);
+        engine.runQueuedWork(Long.MAX_VALUE);
+
+        // Expiration ou sortie des limites pendant l'attente du nouvel essai
+        engine.endSession(player);
+        assertEquals(0, engine.queuedWork());
+
+        clock.advance(1000);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(2, ports.teleports);
+        assertFalse(engine.hasSession(player));
+    }
+
+    @Test
+    void failedPreloadStillTeleports() {
+        ports.preloadFailure = new IllegalStateException("monde d'origine déchargé");
+
+        engine.endSession(player);
+        engine.runQueuedWork(Long.MAX_VALUE);
+
+        assertEquals(1, ports.teleports);
+        assertFalse(engine.hasSession(player));
+    }
+
+    @Test
+    void retryStopsWhenPlayerLogsOut() {
+        ports.teleportResults.add(false);
+        ports.teleportResults.add(false);
+        engine.endSession(player);
+        engine.runQueuedWork(Long.MAX_VALUE);
+
+        // Déconnexion puis reconnexion avant le nouvel essai : il est annulé, la sortie repart sans reprendre la session
+        engine.logout(player);
+        ports.online = false;
+        clock.advance(500);
+        ports.online = true;
+        engine.reconnect(player);
+        assertEquals(0, ports.resumed);
+        assertEquals(0, engine.scheduledTimers());
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(2, ports.teleports);
+        assertTrue(engine.hasSession(player));
+        clock.advance(500);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(2, ports.teleports, "l'ancien essai ne se déclenche plus");
+
+        ports.online = false;
+        clock.advance(1000);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        // Session en pause, reprise à la reconnexion : la sortie peut être relancée
+        assertEquals(2, ports.teleports);
+        assertTrue(engine.hasSession(player));
+
+        ports.online = true;
+        engine.endSession(player);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertEquals(3, ports.teleports);
+        assertFalse(engine.hasSession(player));
+    }
+
+    private static final class TestPorts implements PlayerDirectory, Teleporter, Messenger, Payments, SessionListener,
+            ZoneCatalog, SessionZone {
+        private final Deque<Boolean> teleportResults = new ArrayDeque<>();
+        private boolean online = true;
+        private RuntimeException preloadFailure;
+        private int teleports;
+        private int resumed;
+        private String lastMessage;
+
+        @Override
+        public void onSessionResumed(UUID playerId, int zoneId, int instance) {
+            resumed++;
+        }
+
+        /* Une seule zone (1), une instance dans l'overworld */
+        @Override
+        public SessionZone get(int zoneId) {
+            return zoneId == 1 ? this : null;
+        }
+
+        @Override
+        public List<? extends SessionZone> zones() {
+            return List.of(this);
+        }
+
+        @Override
+        public int id() {
+            return 1;
+        }
+
+        @Override
+        public double cost() {
+            return 0;
+        }
+
+        @Override
+        public int durationMinutes() {
+            return 1;
+        }
+
+        @Override
+        public int instanceCount() {
+            return 1;
+        }
+
+        @Override
+        public String instanceDimension(int instance) {
+            return instance == 0 ? "minecraft:overworld" : null;
+        }
+
+        @Override
+        public boolean isEquivalentTo(SessionZone other) {
+            return other == this;
+        }
+
+        @Override
+        public boolean isOnline(UUID playerId) {
+            return online;
+        }
+
+        @Override
+        public Position position(UUID playerId) {
+            return Position.ORIGIN;
+        }
+
+        @Override
+        public String dimension(UUID playerId) {
+            return "minecraft:overworld";
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepareZone(int zoneId, int instance) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean teleportToZone(UUID playerId, int zoneId, int instance) {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Void> prepareOrigin(PlayerSafariState state) {
+            return preloadFailure != null ? CompletableFuture.failedFuture(preloadFailure) : CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean teleportToOrigin(UUID playerId, PlayerSafariState state) {
+            teleports++;
+            Boolean result = teleportResults.poll();
+            return result == null || result;
+        }
+
+        @Override
+        public void send(UUID playerId, String message, boolean actionBar) {
+            lastMessage = message;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> charge(Payment payment) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean refund(Payment payment) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.floye.safarizone.session;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lectures de {@link SessionStore} pendant les écritures du thread principal : chaque écriture donne à tous les
+ * champs d'une session des valeurs tirées d'un même compteur, une lecture qui mélange deux écritures est détectée.
+ */
+class SessionStoreConcurrencyTest {
+    private static final int PLAYERS = 512;
+    private static final int ROUNDS = 400;
+    private static final int READERS = 4;
+
+    private static PlayerSafariState state(int round) {
+        return new PlayerSafariState(new Position(round, round % 256, -round), "minecraft:overworld",
+                round % 50 + 1, round % 4, 1_000_000L + round);
+    }
+
+    private static void assertConsistent(int x, int y, int z, int zoneId, int instance, long expiry) {
+        int round = x;
+        assertEquals(round % 256, y, "y");
+        assertEquals(-round, z, "z");
+        assertEquals(round % 50 + 1, zoneId, "zone");
+        assertEquals(round % 4, instance, "instance");
+        assertEquals(1_000_000L + round, expiry, "échéance");
+    }
+
+    @Test
+    void readsNeverMixTwoWrites() throws Exception {
+        SessionStore store = new SessionStore();
+        UUID[] players = new UUID[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            players[i] = UUID.randomUUID();
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        try {
+            List<Future<Long>> checks = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                boolean snapshots = r % 2 == 0;
+                checks.add(readers.submit(() -> snapshots ? readSnapshots(store, writing) : readPlayers(store, players, writing)));
+            }
+
+            // Table vide au départ : les agrandissements et les retraits déplacent les sessions pendant les lectures
+            for (int round = 1; round <= ROUNDS; round++) {
+                for (int i = 0; i < PLAYERS; i++) {
+                    if ((round + i) % 7 == 0) {
+                        store.remove(players[i], 0);
+                    } else {
+                        store.put(players[i], state(round));
+                    }
+                }
+            }
+            writing.set(false);
+
+            for (Future<Long> check : checks) {
+                assertTrue(check.get() > 0, "aucune lecture effectuée");
+            }
+        } finally {
+            writing.set(false);
+            readers.shutdownNow();
+        }
+    }
+
+    @Test
+    void countsMatchContentAfterWrites() {
+        SessionStore store = new SessionStore();
+        for (int i = 0; i < PLAYERS; i++) {
+            store.put(UUID.randomUUID(), state(i));
+        }
+
+        SessionStore.Snapshot snapshot = store.snapshot();
+        assertEquals(PLAYERS, snapshot.size());
+        int total = 0;
+        for (int zone = 1; zone <= 50; zone++) {
+            total += store.countInZone(zone);
+        }
+        assertEquals(PLAYERS, total);
+    }
+
+    private static long readPlayers(SessionStore store, UUID[] players, AtomicBoolean writing) {
+        long reads = 0;
+        do {
+            for (UUID player : players) {
+                PlayerSafariState state = store.get(player);
+                if (state == null) continue;
+
+                assertConsistent(state.originalPosition.x(), state.originalPosition.y(), state.originalPosition.z(),
+                        state.zoneId, state.instance, state.expiryTimeMillis);
+                reads++;
+            }
+        } while (writing.get());
+        return reads;
+    }
+
+    private static long readSnapshots(SessionStore store, AtomicBoolean writing) {
+        long reads = 0;
+        do {
+            SessionStore.Snapshot snapshot = store.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                assertConsistent(snapshot.originX(i), snapshot.originY(i), snapshot.originZ(i),
+                        snapshot.zoneId(i), snapshot.instance(i), snapshot.expiryTimeMillis(i));
+            }
+            reads++;
+        } while (writing.get());
+        return reads;
+    }
+}
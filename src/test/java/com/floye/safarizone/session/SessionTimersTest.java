@@ -0,0 +1,234 @@
+package com.floye.safarizone.session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Échéances d'une session : avertissements à 5 min et 1 min puis expiration, chacun à son heure, annulés et
+ * replanifiés à la déconnexion et à la reconnexion. Horloge manuelle.
+ */
+class SessionTimersTest {
+    private static final long START_MILLIS = 1_000_000;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final UUID player = UUID.randomUUID();
+    private ManualClock clock;
+    private List<String> fired;
+    private SessionTimers timers;
+
+    @BeforeEach
+    void setUp() {
+        clock = new ManualClock(START_MILLIS);
+        fired = new ArrayList<>();
+        timers = new SessionTimers(clock,
+                (playerId, minutes) -> fired.add(minutes + "min@" + (clock.currentTimeMillis() - START_MILLIS)),
+                playerId -> fired.add("expire@" + (clock.currentTimeMillis() - START_MILLIS)));
+    }
+
+    private static PlayerSafariState state(long expiryMillis, boolean fiveMinuteSent, boolean oneMinuteSent) {
+        return new PlayerSafariState(new Position(0, 64, 0), "minecraft:overworld", 1, 0, expiryMillis, null,
+                fiveMinuteSent, oneMinuteSent);
+    }
+
+    @Test
+    void eachDeadlineFiresOnTime() {
+        timers.schedule(player, state(START_MILLIS + 10 * MINUTE, false, false));
+        assertEquals(1, timers.scheduledCount());
+
+        clock.advance(5 * MINUTE - 1);
+        assertTrue(fired.isEmpty());
+        clock.advance(1);
+        assertEquals(List.of("5min@" + 5 * MINUTE), fired);
+
+        clock.advance(5 * MINUTE);
+        assertEquals(List.of("5min@" + 5 * MINUTE, "1min@" + 9 * MINUTE, "expire@" + 10 * MINUTE), fired);
+    }
+
+    @Test
+    void sentOrPassedWarningsAreSkipped() {
+        // Avertissement de 5 min déjà envoyé, il reste 3 min : seul l'avertissement de 1 min reste à venir
+        timers.schedule(player, state(START_MILLIS + 3 * MINUTE, true, false));
+        clock.advance(3 * MINUTE);
+        assertEquals(List.of("1min@" + 2 * MINUTE, "expire@" + 3 * MINUTE), fired);
+    }
+
+    @Test
+    void pastDeadlineExpiresImmediately() {
+        timers.schedule(player, state(START_MILLIS - MINUTE, false, false));
+        clock.advance(0);
+        assertEquals(List.of("expire@0"), fired);
+    }
+
+    @Test
+    void rescheduleReplacesEarlierTimers() {
+        timers.schedule(player, state(START_MILLIS + 2 * MINUTE, false, false));
+        timers.schedule(player, state(START_MILLIS + 4 * MINUTE, false, true));
+        // Plus que 4 min, avertissement de 1 min déjà envoyé : seule l'expiration reste
+        assertEquals(1, clock.pending(), "les timers remplacés sont retirés de l'échéancier");
+
+        clock.advance(10 * MINUTE);
+        assertEquals(List.of("expire@" + 4 * MINUTE), fired);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        timers.schedule(player, state(START_MILLIS + 10 * MINUTE, false, false));
+        timers.cancel(player);
+        assertEquals(0, timers.scheduledCount());
+        assertEquals(0, clock.pending());
+
+        clock.advance(20 * MINUTE);
+        assertTrue(fired.isEmpty());
+    }
+
+    @Test
+    void logoutPausesAndReconnectShiftsExpiry() {
+        Ports ports = new Ports();
+        List<SessionEvent> events = new ArrayList<>();
+        SessionEngine engine = new SessionEngine(clock, Runnable::run, ports, ports, ports, ports,
+                (event, playerId, state) -> events.add(event), new SessionListener() {
+        });
+        engine.setZones(new Zones());
+        SessionStore store = new SessionStore();
+        store.put(player, state(START_MILLIS + 10 * MINUTE, false, false));
+        engine.load(store);
+        engine.reconnect(player);
+        assertEquals(1, engine.scheduledTimers());
+        ports.messages.clear();
+
+        clock.advance(2 * MINUTE);
+        engine.logout(player);
+        ports.online = false;
+        assertEquals(0, engine.scheduledTimers());
+        assertEquals(0, clock.pending(), "aucune échéance pendant la déconnexion");
+
+        // Trois minutes hors ligne : l'échéance passe de 10 à 13 min
+        clock.advance(3 * MINUTE);
+        ports.online = true;
+        engine.reconnect(player);
+        assertEquals(START_MILLIS + 13 * MINUTE, engine.states().get(player).expiryTimeMillis);
+
+        clock.advance(3 * MINUTE - 1);
+        assertEquals(List.of(SessionEvent.LOGOUT, SessionEvent.RECONNECT), events);
+        clock.advance(1);
+        assertEquals(List.of("Temps restant: 480s", "Attention! Il vous reste 5 minutes."), ports.messages);
+
+        clock.advance(4 * MINUTE);
+        assertEquals("Attention! Il vous reste 1 minute.", ports.messages.get(2));
+        clock.advance(MINUTE - 1);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertTrue(engine.hasSession(player));
+        clock.advance(1);
+        engine.runQueuedWork(Long.MAX_VALUE);
+        assertFalse(engine.hasSession(player));
+        assertEquals(SessionEvent.EXPIRE, events.get(events.size() - 1));
+    }
+
+    /* Une zone 1 de 10 min, une instance dans l'overworld */
+    private static final class Zones implements ZoneCatalog, SessionZone {
+        @Override
+        public SessionZone get(int zoneId) {
+            return zoneId == 1 ? this : null;
+        }
+
+        @Override
+        public List<? extends SessionZone> zones() {
+            return List.of(this);
+        }
+
+        @Override
+        public int id() {
+            return 1;
+        }
+
+        @Override
+        public double cost() {
+            return 0;
+        }
+
+        @Override
+        public int durationMinutes() {
+            return 10;
+        }
+
+        @Override
+        public int instanceCount() {
+            return 1;
+        }
+
+        @Override
+        public String instanceDimension(int instance) {
+            return instance == 0 ? "minecraft:overworld" : null;
+        }
+
+        @Override
+        public boolean isEquivalentTo(SessionZone other) {
+            return other == this;
+        }
+    }
+
+    private static final class Ports implements PlayerDirectory, Teleporter, Messenger, Payments {
+        private final List<String> messages = new ArrayList<>();
+        private boolean online = true;
+
+        @Override
+        public boolean isOnline(UUID playerId) {
+            return online;
+        }
+
+        @Override
+        public Position position(UUID playerId) {
+            return Position.ORIGIN;
+        }
+
+        @Override
+        public String dimension(UUID playerId) {
+            return "minecraft:overworld";
+        }
+
+        @Override
+        public CompletableFuture<Boolean> prepareZone(int zoneId, int instance) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean teleportToZone(UUID playerId, int zoneId, int instance) {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Void> prepareOrigin(PlayerSafariState state) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean teleportToOrigin(UUID playerId, PlayerSafariState state) {
+            return true;
+        }
+
+        @Override
+        public void send(UUID playerId, String message, boolean actionBar) {
+            messages.add(message);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> charge(Payment payment) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public boolean refund(Payment payment) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.floye.safarizone.util;
+
+import net.minecraft.entity.SpawnReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Budget d'apparition d'une zone : apparitions limitées selon leur origine, créatures réattribuées lorsqu'elles
+ * changent de zone.
+ */
+class SpawnCountsTest {
+    private static final int ZONE = 1;
+    private static final int OTHER_ZONE = 2;
+    private static final int BUDGET = 2;
+    // Les Pokémon sauvages du générateur de Cobblemon arrivent sans raison d'apparition vanilla
+    private static final String COBBLEMON = "cobblemon";
+
+    private SpawnCounts counts;
+
+    @BeforeEach
+    void setUp() {
+        counts = new SpawnCounts();
+    }
+
+    @Test
+    void cobblemonSpawnRefusedOnceBudgetIsSpent() {
+        assertTrue(counts.allows(null, COBBLEMON, ZONE, BUDGET));
+        counts.add(1, ZONE);
+        assertTrue(counts.allows(null, COBBLEMON, ZONE, BUDGET));
+        counts.add(2, ZONE);
+
+        assertFalse(counts.allows(null, COBBLEMON, ZONE, BUDGET));
+        assertFalse(counts.allows(SpawnReason.NATURAL, COBBLEMON, ZONE, BUDGET));
+        assertTrue(counts.allows(null, COBBLEMON, OTHER_ZONE, BUDGET), "les autres zones ont leur propre budget");
+        assertTrue(counts.allows(null, COBBLEMON, ZONE, -1), "zone sans budget");
+
+        counts.remove(1);
+        assertTrue(counts.allows(null, COBBLEMON, ZONE, BUDGET));
+    }
+
+    @Test
+    void playerAndSpawnerSpawnsAreNeverRefused() {
+        counts.add(1, ZONE);
+        counts.add(2, ZONE);
+
+        assertFalse(counts.allows(SpawnReason.NATURAL, "minecraft", ZONE, BUDGET));
+        assertTrue(counts.allows(SpawnReason.SPAWN_EGG, COBBLEMON, ZONE, BUDGET));
+        assertTrue(counts.allows(SpawnReason.COMMAND, "minecraft", ZONE, BUDGET));
+        assertTrue(counts.allows(SpawnReason.SPAWNER, "minecraft", ZONE, BUDGET));
+        // Élevage et conversion vanilla : aucune raison d'apparition, jamais bloqués
+        assertTrue(counts.allows(null, "minecraft", ZONE, BUDGET));
+    }
+
+    @Test
+    void movingCreatureCountsInItsCurrentZone() {
+        counts.add(1, ZONE);
+        counts.add(2, SpawnCounts.NO_ZONE);
+        assertEquals(1, counts.count(ZONE));
+
+        // Sortie de la zone : sa place est libérée
+        counts.move(1, SpawnCounts.NO_ZONE);
+        assertEquals(0, counts.count(ZONE));
+
+        counts.move(1, OTHER_ZONE);
+        counts.move(2, ZONE);
+        counts.move(2, ZONE);
+        assertEquals(1, counts.count(ZONE));
+        assertEquals(1, counts.count(OTHER_ZONE));
+
+        counts.remove(1);
+        counts.remove(2);
+        counts.remove(3);
+        assertEquals(0, counts.count(ZONE));
+        assertEquals(0, counts.count(OTHER_ZONE));
+    }
+}